@@ -0,0 +1,199 @@
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A renderer decorator that renders boards on a separate thread, so a slow renderer does not hold up
+ * the game.
+ * Each call to renderBoard only snapshots the board into a FrameRingBuffer. The render thread passes
+ * the frames on to the wrapped renderer at no more than a maximum frame rate: when several frames
+ * arrive within one frame interval only the newest is shown, and when the buffer is full new
+ * intermediate frames are dropped right away. The final board of every game is always shown.
+ * Call flush to wait for the queued frames, and close at the end to also stop the render thread.
+ *
+ * @author aron isaacs
+ * @see Renderer
+ * @see FrameRingBuffer
+ */
+public class AsyncRenderer implements Renderer {
+	/**
+	 * Maximum frame rate used by default.
+	 */
+	public static final int DEFAULT_MAX_FRAME_RATE = 30;
+	private static final int BUFFER_CAPACITY = 64;
+	// How long the render thread sleeps when it has nothing to do
+	private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final Renderer renderer;
+	private final FrameRingBuffer frames;
+	private final long frameIntervalNanos;
+	private final Thread renderThread;
+	// Number of frames offered to the buffer, written by the game thread only
+	private long offeredFrames = 0;
+	// Frames up to this count should be shown without waiting for the frame interval
+	private volatile long flushTarget = 0;
+	// Number of frames the render thread has fully handled (shown, merged or skipped)
+	private volatile long handledFrames = 0;
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor to initialize an asynchronous renderer with the default maximum frame rate.
+	 *
+	 * @param renderer the renderer to draw the frames with
+	 * @param size     the size of the boards to render
+	 */
+	public AsyncRenderer(Renderer renderer, int size) {
+		this(renderer, size, DEFAULT_MAX_FRAME_RATE);
+	}
+
+	/**
+	 * Constructor to initialize an asynchronous renderer.
+	 *
+	 * @param renderer     the renderer to draw the frames with
+	 * @param size         the size of the boards to render
+	 * @param maxFrameRate the maximum number of intermediate frames rendered per second
+	 */
+	public AsyncRenderer(Renderer renderer, int size, int maxFrameRate) {
+		this.renderer = renderer;
+		this.frames = new FrameRingBuffer(size, BUFFER_CAPACITY);
+		this.frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / maxFrameRate;
+		this.renderThread = new Thread(this::renderLoop, "async-renderer");
+		this.renderThread.setDaemon(true);
+		this.renderThread.start();
+	}
+
+	/**
+	 * Queues the board for rendering. The frame is dropped if the render thread is too far behind.
+	 *
+	 * @param board the game board to be rendered
+	 */
+	@Override
+	public void renderBoard(Board board) {
+		if (frames.offer(board, false)) {
+			offeredFrames++;
+		}
+	}
+
+	/**
+	 * Queues the final board of a game, waiting for room in the buffer so that it is never dropped.
+	 *
+	 * @param board the game board at the end of the game
+	 */
+	@Override
+	public void gameEnded(Board board) {
+		while (!frames.offer(board, true)) {
+			LockSupport.parkNanos(IDLE_NANOS);
+		}
+		offeredFrames++;
+	}
+
+	/**
+	 * Displays nothing exactly when the wrapped renderer displays nothing.
+	 *
+	 * @return whether the wrapped renderer is headless
+	 */
+	@Override
+	public boolean isHeadless() {
+		return renderer.isHeadless();
+	}
+
+	/**
+	 * Waits until every frame queued so far has been handled, showing the newest one right away.
+	 * Use this before printing anything else, so the output is not interleaved with the boards.
+	 */
+	@Override
+	public void flush() {
+		flushTarget = offeredFrames;
+		LockSupport.unpark(renderThread);
+		while (handledFrames < offeredFrames) {
+			LockSupport.parkNanos(IDLE_NANOS);
+		}
+	}
+
+	/**
+	 * Shows the frames still queued and stops the render thread.
+	 */
+	@Override
+	public void close() {
+		flush();
+		closed = true;
+		LockSupport.unpark(renderThread);
+		try {
+			renderThread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/*
+	 * The render thread: drains the buffer, keeping only the newest intermediate frame, and renders
+	 * it once the frame interval has passed. Final frames are rendered as soon as they arrive.
+	 */
+	private void renderLoop() {
+		int cells = frames.getSize() * frames.getSize();
+		byte[] frame = new byte[cells];
+		byte[] pending = new byte[cells];
+		byte[] shown = new byte[cells];
+		boolean hasPending = false;
+		boolean hasShown = false;
+		long nextFrameTime = System.nanoTime();
+		long polledFrames = 0;
+
+		while (true) {
+			int kind = frames.poll(frame);
+			if (kind != FrameRingBuffer.NO_FRAME) {
+				polledFrames++;
+			}
+			if (kind == FrameRingBuffer.FINAL_FRAME) {
+				// A newer final frame replaces any intermediate frame still waiting
+				hasPending = false;
+				// Skip it only if the same game's last intermediate frame already showed this board
+				if (!hasShown || !Arrays.equals(frame, shown)) {
+					draw(frame);
+				}
+				// The game is over, so the next game's final frame is never compared to this one
+				hasShown = false;
+				nextFrameTime = System.nanoTime() + frameIntervalNanos;
+			} else if (kind == FrameRingBuffer.FRAME) {
+				// Merge: the newest intermediate frame replaces the one waiting
+				byte[] swap = pending;
+				pending = frame;
+				frame = swap;
+				hasPending = true;
+			} else if (hasPending) {
+				long now = System.nanoTime();
+				if (now >= nextFrameTime || flushTarget >= polledFrames) {
+					draw(pending);
+					System.arraycopy(pending, 0, shown, 0, cells);
+					hasShown = true;
+					hasPending = false;
+					nextFrameTime = now + frameIntervalNanos;
+				} else {
+					LockSupport.parkNanos(Math.min(nextFrameTime - now, IDLE_NANOS));
+				}
+			} else {
+				// Nothing is waiting, so every frame polled so far has been handled
+				handledFrames = polledFrames;
+				if (closed) {
+					return;
+				}
+				LockSupport.parkNanos(IDLE_NANOS);
+			}
+		}
+	}
+
+	/*
+	 * Rebuilds a board from a frame and passes it to the wrapped renderer.
+	 *
+	 * @param frame the frame to render
+	 */
+	private void draw(byte[] frame) {
+		int size = frames.getSize();
+		Mark[] marks = Mark.values();
+		Board board = new Board(size);
+		for (int cell = 0; cell < frame.length; cell++) {
+			board.putMark(marks[frame[cell]], cell / size, cell % size);
+		}
+		renderer.renderBoard(board);
+	}
+}
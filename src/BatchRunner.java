@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs many tournament configurations in a single JVM, so that JVM startup and JIT warm-up are paid
+ * once for the whole batch instead of once per configuration.
+ * The configuration file holds one tournament per line, with the same arguments as Tournament.main:
+ * [round count] [board size] [win streak] [render target] [first player] [second player]
+ * Empty lines and lines starting with '#' are ignored.
+ * Configurations can run concurrently; each one builds its own players and renderer.
+ * Results are written as CSV, one line per configuration in the order of the file, with the wall-clock
+ * time the configuration took. Before it is timed, every configuration is warmed up untimed with its
+ * own players for up to WARMUP_MILLIS, so the first configurations do not pay for class loading and
+ * JIT compilation that the later ones get for free.
+ * A configuration that fails, for example because it names an unknown player or has the wrong number
+ * of arguments, gets a line with empty results and the error message, and the rest of the batch still
+ * runs.
+ *
+ * @author aron isaacs
+ * @see Tournament
+ */
+public class BatchRunner {
+	public static final String CSV_HEADER =
+			"rounds,size,winStreak,renderer,player1,player2,player1Wins,player2Wins,ties,millis,error";
+	private static final String COMMENT_PREFIX = "#";
+	private static final int ARGS_PER_CONFIG = 6;
+	// Longest untimed warm-up of a configuration; at least one game is always played
+	private static final long WARMUP_MILLIS = 200;
+
+	private final int threads;
+
+	/**
+	 * Main method to run a batch of tournaments.
+	 * Expects command-line arguments as follows:
+	 * java BatchRunner [config file] [thread count] [output file]
+	 * Example:
+	 * java BatchRunner sweep.txt 8 results.csv
+	 *
+	 * @param args Command-line arguments:
+	 *             args[0] - File listing one tournament configuration per line.
+	 *             args[1] - Number of configurations to run concurrently (optional, default 1).
+	 *             args[2] - CSV output file (optional, default standard output).
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		List<String[]> configs = readConfigs(args[0]);
+		int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		BatchRunner runner = new BatchRunner(threads);
+		List<String> lines = runner.run(configs);
+
+		PrintStream out = args.length > 2 ? new PrintStream(args[2]) : System.out;
+		out.println(CSV_HEADER);
+		for (String line : lines) {
+			out.println(line);
+		}
+		out.flush();
+		if (out != System.out) {
+			out.close();
+		}
+	}
+
+	/**
+	 * Constructor for the BatchRunner class.
+	 *
+	 * @param threads number of configurations to run concurrently
+	 */
+	public BatchRunner(int threads) {
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * Reads tournament configurations from a file.
+	 * Lines with the wrong number of arguments are kept, so that they get an error line in the results.
+	 *
+	 * @param path the configuration file
+	 * @return the arguments of each configuration, in the order of the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static List<String[]> readConfigs(String path) throws IOException {
+		List<String[]> configs = new ArrayList<>();
+		List<String> lines = Files.readAllLines(Paths.get(path));
+		for (int i = 0; i < lines.size(); i++) {
+			String line = lines.get(i).trim();
+			if (line.isEmpty() || line.startsWith(COMMENT_PREFIX)) {
+				continue;
+			}
+			configs.add(line.split("\\s+"));
+		}
+		return configs;
+	}
+
+	/**
+	 * Runs all configurations and returns one CSV line of results per configuration.
+	 * A configuration that fails gets an error line instead of results.
+	 *
+	 * @param configs the arguments of each configuration, as for Tournament.main
+	 * @return the CSV lines, in the order of the configurations
+	 * @throws InterruptedException if interrupted while waiting for the tournaments
+	 */
+	public List<String> run(List<String[]> configs) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<String>> futures = new ArrayList<>();
+			for (String[] config : configs) {
+				futures.add(executor.submit(() -> runConfig(config)));
+			}
+			List<String> lines = new ArrayList<>();
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					lines.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					lines.add(errorLine(configs.get(i), e.getCause()));
+				}
+			}
+			return lines;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/*
+	 * Builds and plays a single tournament configuration.
+	 *
+	 * @param config the arguments of the configuration, as for Tournament.main
+	 * @return the CSV line of results
+	 */
+	private static String runConfig(String[] config) {
+		if (config.length != ARGS_PER_CONFIG) {
+			throw new IllegalArgumentException(String.format("Expected %d arguments, got %d: %s",
+					ARGS_PER_CONFIG, config.length, String.join(" ", config)));
+		}
+		int rounds = Integer.parseInt(config[0]);
+		int size = Integer.parseInt(config[1]);
+		int winStreak = Integer.parseInt(config[2]);
+		warmUp(config, rounds, size, winStreak);
+
+		PlayerFactory playerFactory = new PlayerFactory();
+		RendererFactory rendererFactory = new RendererFactory();
+		Renderer renderer = rendererFactory.buildRenderer(config[3], size);
+		Player player1 = playerFactory.buildPlayer(config[4], size, winStreak);
+		Player player2 = playerFactory.buildPlayer(config[5], size, winStreak);
+		try {
+			if (renderer == null) {
+				throw new IllegalArgumentException("Unknown renderer: " + config[3]);
+			}
+			if (player1 == null || player2 == null) {
+				throw new IllegalArgumentException(
+						"Unknown player: " + (player1 == null ? config[4] : config[5]));
+			}
+			Tournament tournament = new Tournament(rounds, renderer, player1, player2);
+
+			long start = System.nanoTime();
+			TournamentResult result = tournament.playRounds(size, winStreak);
+			renderer.flush();
+			long millis = (System.nanoTime() - start) / 1_000_000;
+
+			return String.format("%d,%d,%d,%s,%s,%s,%d,%d,%d,%d,", rounds, size, winStreak, config[3],
+					config[4], config[5], result.getPlayer1Wins(), result.getPlayer2Wins(),
+					result.getTies(), millis);
+		} finally {
+			// close whatever was built, even if the configuration failed
+			if (renderer != null) {
+				renderer.close();
+			}
+			if (player1 != null) {
+				player1.close();
+			}
+			if (player2 != null) {
+				player2.close();
+			}
+		}
+	}
+
+	/*
+	 * Plays games of a configuration untimed, until WARMUP_MILLIS have passed or as many games as the
+	 * configuration has rounds were played, so the code it runs is loaded and compiled.
+	 * The warm-up uses its own players, so the timed run starts from fresh player state, and a
+	 * VoidRenderer, so no extra boards are shown. Unknown players are left for the timed run to report.
+	 *
+	 * @param config the arguments of the configuration, as for Tournament.main
+	 */
+	private static void warmUp(String[] config, int rounds, int size, int winStreak) {
+		PlayerFactory playerFactory = new PlayerFactory();
+		Player player1 = playerFactory.buildPlayer(config[4], size, winStreak);
+		Player player2 = playerFactory.buildPlayer(config[5], size, winStreak);
+		try {
+			if (player1 == null || player2 == null) {
+				return;
+			}
+			Renderer renderer = new VoidRenderer();
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+			for (int round = 0; round < rounds && (round == 0 || System.nanoTime() < deadline); round++) {
+				// A new single-round tournament per game, so memoized games are still played
+				Player first = round % 2 == 0 ? player1 : player2;
+				Player second = round % 2 == 0 ? player2 : player1;
+				new Tournament(1, renderer, first, second).playRounds(size, winStreak);
+			}
+		} finally {
+			if (player1 != null) {
+				player1.close();
+			}
+			if (player2 != null) {
+				player2.close();
+			}
+		}
+	}
+
+	/*
+	 * Builds the CSV line of a configuration that failed: its arguments, empty results and the error.
+	 *
+	 * @param config the arguments of the configuration, as for Tournament.main
+	 * @param error  the cause of the failure
+	 * @return the CSV line
+	 */
+	private static String errorLine(String[] config, Throwable error) {
+		String message = error.getMessage() == null ? error.toString() : error.getMessage();
+		// Always write one field per argument, even for lines with too few or too many arguments
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < ARGS_PER_CONFIG; i++) {
+			line.append(i < config.length ? csvField(config[i]) : "").append(',');
+		}
+		return line.append(",,,,").append(csvField(message)).toString();
+	}
+
+	/*
+	 * Quotes a CSV field if it contains a comma, a quote or a line break.
+	 */
+	private static String csvField(String value) {
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+}
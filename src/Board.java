@@ -11,6 +11,9 @@ public class Board {
 	private final int size;
 	// 2D array to hold the marks on the board
 	private final Mark[][] boardArray;
+	// Position of the last mark placed on the board, -1 before the first mark
+	private int lastRow = -1;
+	private int lastCol = -1;
 
 	/**
 	 * Default constructor initializes a 4x4 board.
@@ -55,11 +58,31 @@ public class Board {
 	public boolean putMark(Mark mark, int row, int col) {
 		if (row >= 0 && row < size && col >= 0 && col < size && boardArray[row][col] == Mark.BLANK) {
 			this.boardArray[row][col] = mark;
+			this.lastRow = row;
+			this.lastCol = col;
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * Returns the row of the last mark placed on the board.
+	 *
+	 * @return the row index (0-based), or -1 if no mark was placed yet
+	 */
+	public int getLastRow() {
+		return lastRow;
+	}
+
+	/**
+	 * Returns the column of the last mark placed on the board.
+	 *
+	 * @return the column index (0-based), or -1 if no mark was placed yet
+	 */
+	public int getLastCol() {
+		return lastCol;
+	}
+
 	/**
 	 * Retrieves the mark at the specified row and column.
 	 *
@@ -0,0 +1,113 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded single-producer/single-consumer ring buffer of board frames.
+ * A frame is a compact snapshot of a board: one byte per cell holding the ordinal of its Mark.
+ * All slots are allocated up front, so offering and polling frames never allocates.
+ * Exactly one thread may offer frames and exactly one (other) thread may poll them; the two threads
+ * only communicate through the head and tail counters, with no locks.
+ *
+ * @author aron isaacs
+ * @see AsyncRenderer
+ */
+public class FrameRingBuffer {
+	/**
+	 * Returned by poll when no frame is available.
+	 */
+	public static final int NO_FRAME = 0;
+	/**
+	 * Returned by poll for an intermediate frame, which may be skipped.
+	 */
+	public static final int FRAME = 1;
+	/**
+	 * Returned by poll for the final frame of a game, which must be shown.
+	 */
+	public static final int FINAL_FRAME = 2;
+
+	private final int size;
+	// The capacity is a power of two so a counter maps to its slot with a mask
+	private final int mask;
+	private final byte[][] slots;
+	private final boolean[] finalFrames;
+	// Next slot to poll, written only by the consumer
+	private final AtomicLong head = new AtomicLong();
+	// Next slot to offer, written only by the producer
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Constructor to initialize a ring buffer for boards of the given size.
+	 *
+	 * @param size     the size of the boards (number of rows and columns)
+	 * @param capacity the minimal number of frames the buffer holds, rounded up to a power of two
+	 */
+	public FrameRingBuffer(int size, int capacity) {
+		int slotCount = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+		this.size = size;
+		this.mask = slotCount - 1;
+		this.slots = new byte[slotCount][size * size];
+		this.finalFrames = new boolean[slotCount];
+	}
+
+	/**
+	 * Returns the size of the boards held by this buffer.
+	 *
+	 * @return the board size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Snapshots the board into the next free slot. Called by the producer thread only.
+	 *
+	 * @param board      the board to snapshot
+	 * @param finalFrame true if this is the final frame of a game
+	 * @return true if the frame was added, false if the buffer is full
+	 */
+	public boolean offer(Board board, boolean finalFrame) {
+		long currentTail = tail.get();
+		if (currentTail - head.get() > mask) {
+			return false;
+		}
+		int slot = (int) currentTail & mask;
+		byte[] frame = slots[slot];
+		for (int row = 0; row < size; row++) {
+			for (int col = 0; col < size; col++) {
+				frame[row * size + col] = (byte) board.getMark(row, col).ordinal();
+			}
+		}
+		finalFrames[slot] = finalFrame;
+		// Publish the slot contents before the new tail becomes visible to the consumer
+		tail.lazySet(currentTail + 1);
+		return true;
+	}
+
+	/**
+	 * Copies the oldest frame into the target array and frees its slot. Called by the consumer
+	 * thread only.
+	 *
+	 * @param target an array of size * size bytes to copy the frame into
+	 * @return NO_FRAME if the buffer is empty, otherwise FRAME or FINAL_FRAME
+	 */
+	public int poll(byte[] target) {
+		long currentHead = head.get();
+		if (currentHead == tail.get()) {
+			return NO_FRAME;
+		}
+		int slot = (int) currentHead & mask;
+		System.arraycopy(slots[slot], 0, target, 0, target.length);
+		boolean finalFrame = finalFrames[slot];
+		// Release the slot only after it has been read
+		head.lazySet(currentHead + 1);
+		return finalFrame ? FINAL_FRAME : FRAME;
+	}
+
+	/**
+	 * Checks whether the buffer holds no frames.
+	 *
+	 * @return true if there is no frame to poll
+	 */
+	public boolean isEmpty() {
+		return head.get() == tail.get();
+	}
+}
@@ -1,7 +1,11 @@
+import jdk.jfr.FlightRecorder;
+
 /**
  * Class representing a game of Tic-Tac-Toe with customizable board size and win conditions.
  * It manages the players, the game board, and checks for winning conditions.
  * The game alternates turns between two players until a player wins or the board is full (a tie).
+ * Optionally the game also ends in a tie as soon as no window of winStreak cells is left that either
+ * player can still fill, which on large boards is usually long before the board is full.
  *
  * @author Aron Isaacs
  * @see Player
@@ -9,11 +13,19 @@
  * @see Renderer
  */
 public class Game {
+	// Result reported to flight recordings for a game without a winner
+	private static final String TIE_RESULT = "tie";
+
 	private final Player[] players;
 	private final int winStreak;
 	private final Renderer renderer;
 	private final Board board;
 	private final int size;
+	// Mirrors the board to track windows that can still be won, null if dead draws are not detected
+	private final SearchBoard liveWindows;
+	// Whether flight recording was on when the game started; the event classes are only loaded if so
+	private boolean recording;
+	private int turns;
 
 	/**
 	 * Default constructor initializing a standard 4x4 board with a win streak of 3.
@@ -28,6 +40,7 @@ public class Game {
 
 	/**
 	 * Constructor to initialize a game with specified board size and win streak.
+	 * Dead draws end the game early only when the game is not displayed, i.e. with a headless renderer.
 	 *
 	 * @param playerX   the player using the X mark
 	 * @param playerO   the player using the O mark
@@ -36,11 +49,28 @@ public class Game {
 	 * @param renderer  the renderer to display the game board
 	 */
 	public Game(Player playerX, Player playerO, int size, int winStreak, Renderer renderer) {
+		this(playerX, playerO, size, winStreak, renderer, renderer.isHeadless());
+	}
+
+	/**
+	 * Constructor to initialize a game with specified board size and win streak, choosing whether the
+	 * game ends early once neither player can win anymore.
+	 *
+	 * @param playerX      the player using the X mark
+	 * @param playerO      the player using the O mark
+	 * @param size         the size of the board (number of rows and columns)
+	 * @param winStreak    the number of consecutive marks needed to win
+	 * @param renderer     the renderer to display the game board
+	 * @param endDeadDraws true to end the game in a tie as soon as every window holds both marks
+	 */
+	public Game(Player playerX, Player playerO, int size, int winStreak, Renderer renderer,
+				boolean endDeadDraws) {
 		this.players = new Player[]{playerX, playerO};
 		this.renderer = renderer;
 		this.winStreak = winStreak;
 		this.size = size;
 		this.board = new Board(size);
+		this.liveWindows = endDeadDraws ? new SearchBoard(StreakWindows.of(size, winStreak)) : null;
 	}
 
 	/**
@@ -62,39 +92,171 @@ public class Game {
 	}
 
 	/**
-	 * Runs the game until a player wins or the board is full (tie).
+	 * Runs the game until a player wins or the board is full (tie), or, if enabled, until no player
+	 * can win anymore (tie).
 	 * Alternates turns between the two players and checks for a winning streak after each turn.
-	 * Renders the board state after each turn.
+	 * Renders the board state after each turn, and notifies the renderer when the game ends.
+	 * Emits Java Flight Recorder events for the game, each turn, each render and each win check;
+	 * see GameEvent, TurnEvent, RenderEvent and WinCheckEvent.
+	 * Loading event classes sets up JFR, which costs a few hundred milliseconds of startup, so the
+	 * events are only used when flight recording was already running when the game started.
 	 *
 	 * @return the mark of the winning player (X or O), or BLANK in case of a tie
 	 * @see Player#playTurn(Board, Mark)
 	 * @see Renderer#renderBoard(Board)
+	 * @see Renderer#gameEnded(Board)
 	 */
 	public Mark run() {
+		recording = FlightRecorder.isInitialized();
+		if (!recording) {
+			return play();
+		}
+		GameEvent gameEvent = new GameEvent();
+		gameEvent.begin();
+		Mark winner = play();
+		gameEvent.end();
+		if (gameEvent.shouldCommit()) {
+			gameEvent.size = size;
+			gameEvent.winStreak = winStreak;
+			gameEvent.result = winner == Mark.BLANK ? TIE_RESULT : winner.toString();
+			gameEvent.turns = turns;
+			gameEvent.commit();
+		}
+		return winner;
+	}
+
+	/*
+	 * Plays the turns of the game and notifies the renderer when it ends.
+	 *
+	 * @return the mark of the winning player (X or O), or BLANK in case of a tie
+	 */
+	private Mark play() {
 		Mark[] marks = Mark.values();
-		for (int i = 0; i < size * size; i++) {
+		// If the board fills up and no player has won, it's a tie, and we return BLANK
+		Mark winner = Mark.BLANK;
+		turns = 0;
+		while (turns < size * size) {
+			Mark mark = marks[turns % 2];
 			// Current player plays their turn
-			players[i % 2].playTurn(board, marks[i % 2]);
+			playTurn(players[turns % 2], mark);
+			turns++;
 			// Render the current state of the board
-			renderer.renderBoard(board);
+			render();
 			// Check for a winning streak after each turn
-			if (hasStreak(marks[i % 2])) {
-				return marks[i % 2];
+			if (checkStreak(mark)) {
+				winner = mark;
+				break;
 			}
+			// Stop as soon as neither player can complete a window anymore
+			if (liveWindows != null && isDeadDraw(mark)) {
+				break;
+			}
+		}
+		renderer.gameEnded(board);
+		return winner;
+	}
+
+	/*
+	 * Lets the player play a turn, recording a TurnEvent when flight recording is on.
+	 * Flushes the renderer first if the player is interactive.
+	 *
+	 * @param player the player whose turn it is
+	 * @param mark   the mark of the player
+	 */
+	private void playTurn(Player player, Mark mark) {
+		// A person must see the current board before being asked for a move
+		if (player.isInteractive()) {
+			renderer.flush();
+		}
+		if (!recording) {
+			player.playTurn(board, mark);
+			return;
+		}
+		// A cell can only be marked once, so an unchanged last move means no mark was placed
+		int previousRow = board.getLastRow();
+		int previousCol = board.getLastCol();
+		TurnEvent event = new TurnEvent();
+		event.begin();
+		player.playTurn(board, mark);
+		event.end();
+		if (event.shouldCommit()) {
+			boolean placed = board.getLastRow() != previousRow || board.getLastCol() != previousCol;
+			event.playerType = player.getClass().getSimpleName();
+			event.mark = mark.toString();
+			event.row = placed ? board.getLastRow() : -1;
+			event.col = placed ? board.getLastCol() : -1;
+			event.commit();
+		}
+	}
+
+	/*
+	 * Renders the board, recording a RenderEvent when flight recording is on.
+	 */
+	private void render() {
+		if (!recording) {
+			renderer.renderBoard(board);
+			return;
+		}
+		RenderEvent event = new RenderEvent();
+		event.begin();
+		renderer.renderBoard(board);
+		event.end();
+		if (event.shouldCommit()) {
+			event.rendererType = renderer.getClass().getSimpleName();
+			event.commit();
+		}
+	}
+
+	/*
+	 * Records the last move in the live window tracker and checks whether any window is still live.
+	 *
+	 * @param mark the mark of the player who just moved
+	 * @return true if every window holds both marks, so the game can only end in a tie
+	 */
+	private boolean isDeadDraw(Mark mark) {
+		int cell = board.getLastRow() * size + board.getLastCol();
+		// A player that did not place a mark leaves the last move unchanged
+		if (cell >= 0 && liveWindows.isEmpty(cell)) {
+			liveWindows.place(cell, mark.ordinal());
+		}
+		return liveWindows.isDeadDraw();
+	}
+
+	/*
+	 * Checks for a winning streak, recording a WinCheckEvent when flight recording is on.
+	 *
+	 * @param mark the mark of the player who just moved
+	 * @return true if the mark has a winning streak
+	 */
+	private boolean checkStreak(Mark mark) {
+		if (!recording) {
+			return hasStreak(board, mark, winStreak);
+		}
+		WinCheckEvent event = new WinCheckEvent();
+		event.begin();
+		boolean won = hasStreak(board, mark, winStreak);
+		event.end();
+		if (event.shouldCommit()) {
+			event.mark = mark.toString();
+			event.won = won;
+			event.commit();
 		}
-		// If the board is full and no player has won, it's a tie, and we return BLANK
-		return Mark.BLANK;
+		return won;
 	}
 
 	/**
 	 * Checks if the specified mark has a winning streak on the board.
 	 * Uses dynamic programming to track horizontal, vertical, and diagonal streaks.
+	 * GameTreeEnumerator uses this check too, to verify the game's win detection.
 	 *
+	 * @param board       the game board to check
 	 * @param markToCheck the mark to check for a winning streak (X or O)
+	 * @param winStreak   the number of consecutive marks needed to win
 	 * @return true if the mark has a winning streak, false otherwise
 	 * @see Mark
 	 */
-	private boolean hasStreak(Mark markToCheck) {
+	static boolean hasStreak(Board board, Mark markToCheck, int winStreak) {
+		int size = board.getSize();
 		// Dynamic programming tables to track streaks in four directions
 		int[][] horizontal = new int[size][size]; // horizontal
 		int[][] vertical = new int[size][size]; // vertical
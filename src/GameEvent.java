@@ -0,0 +1,32 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted once per Game.run, covering the whole game.
+ * Enabled by default; disable it with the JFR setting tictactoe.Game#enabled=false.
+ * Game only creates its events while a flight recording is running, so without one they cost nothing,
+ * not even the loading of JFR.
+ *
+ * @author aron isaacs
+ * @see Game#run()
+ */
+@Name("tictactoe.Game")
+@Label("Game")
+@Category("Tic Tac Toe")
+@Description("A complete game, from the first turn to the result")
+public class GameEvent extends jdk.jfr.Event {
+	@Label("Board Size")
+	int size;
+
+	@Label("Win Streak")
+	int winStreak;
+
+	@Label("Result")
+	@Description("The winning mark, or \"tie\"")
+	String result;
+
+	@Label("Turns")
+	int turns;
+}
@@ -0,0 +1,473 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Enumerates every legal move sequence of a game, perft-style, as a CPU-heavy benchmark and a
+ * correctness check for the board and win detection code.
+ * There are two modes. The default "search" mode walks the tree on a SearchBoard with undo, and is a
+ * benchmark of SearchBoard and its incremental win detection. The "board" mode rebuilds every
+ * position with Board.putMark and checks for wins with the same check Game.run uses, so it exercises
+ * the real game code; it is much slower, and both modes must report the same counts.
+ * For every depth (number of marks placed) it counts the move sequences reaching that depth, the
+ * games won by X or O and the games tied (board full) at that depth, and the distinct positions
+ * reached. A game stops as soon as a mark completes winStreak in a row, like Game.run; it is not
+ * stopped at dead draws, so a tie always means a full board.
+ * The tree is split into fork-join tasks at the first few plies, so all cores take part.
+ * Known totals for 3x3 with a win streak of 3: 255168 games (131184 won by X, 77904 by O, 46080
+ * tied) and 5478 distinct positions, including the empty board.
+ * Full 4x4 trees hold trillions of sequences, so give a max depth there, like a chess perft depth.
+ *
+ * @author aron isaacs
+ * @see SearchBoard
+ * @see Game
+ */
+public class GameTreeEnumerator {
+	// Plies below which every move is searched in its own task
+	private static final int SPLIT_DEPTH = 2;
+	// Largest board whose positions fit in the distinct-position bit set (3^16 bits, about 5 MB)
+	private static final int MAX_DISTINCT_CELLS = 16;
+	private static final String ROW_FORMAT = "%5s %20s %16s %16s %16s %16s%n";
+	private static final String SEARCH_MODE = "search";
+	private static final String BOARD_MODE = "board";
+
+	private final StreakWindows windows;
+	private final int maxDepth;
+	// Whether positions are built with Board and checked with Game instead of walked on a SearchBoard
+	private final boolean useBoard;
+	// One bit per position, indexed by its base-3 code; null if the board is too large
+	private final AtomicLongArray seen;
+	// pow3[cell] is the weight of the cell in the base-3 code of a position
+	private final long[] pow3;
+
+	/**
+	 * Main method to enumerate a game tree and print the counts.
+	 * Expects command-line arguments as follows:
+	 * java GameTreeEnumerator [board size] [win streak] [max depth] [thread count] [mode]
+	 * Example:
+	 * java GameTreeEnumerator 3 3 9 8 board
+	 *
+	 * @param args Command-line arguments:
+	 *             args[0] - Size of the game board.
+	 *             args[1] - Number of consecutive marks needed to win.
+	 *             args[2] - Deepest ply to enumerate (optional, default: the whole game).
+	 *             args[3] - Number of threads (optional, default: all available cores).
+	 *             args[4] - "search" to walk a SearchBoard, or "board" to build positions with Board
+	 *                       and check wins like Game (optional, default: search).
+	 */
+	public static void main(String[] args) {
+		int size = Integer.parseInt(args[0]);
+		int winStreak = Integer.parseInt(args[1]);
+		int maxDepth = args.length > 2 ? Integer.parseInt(args[2]) : size * size;
+		int threads = args.length > 3
+				? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+		String mode = args.length > 4 ? args[4] : SEARCH_MODE;
+		if (!mode.equals(SEARCH_MODE) && !mode.equals(BOARD_MODE)) {
+			throw new IllegalArgumentException("Unknown mode: " + mode);
+		}
+
+		GameTreeEnumerator enumerator =
+				new GameTreeEnumerator(size, winStreak, maxDepth, mode.equals(BOARD_MODE));
+		long start = System.nanoTime();
+		Counts counts = enumerator.enumerate(threads);
+		long nanos = System.nanoTime() - start;
+
+		System.out.printf(ROW_FORMAT, "depth", "sequences", "distinct", "X wins", "O wins", "ties");
+		for (int depth = 0; depth <= maxDepth; depth++) {
+			System.out.printf(ROW_FORMAT, depth, counts.nodes[depth],
+					counts.distinct == null ? "-" : counts.distinct[depth],
+					counts.xWins[depth], counts.oWins[depth], counts.ties[depth]);
+		}
+		System.out.printf(ROW_FORMAT, "total", sum(counts.nodes),
+				counts.distinct == null ? "-" : sum(counts.distinct),
+				sum(counts.xWins), sum(counts.oWins), sum(counts.ties));
+		long nodes = sum(counts.nodes);
+		System.out.printf("%d nodes in %d ms on %d threads (%s mode), %.0f nodes/s%n", nodes,
+				nanos / 1_000_000, threads, mode, nodes / (nanos / 1e9));
+	}
+
+	/**
+	 * Constructor for an enumerator walking the tree on a SearchBoard.
+	 *
+	 * @param size      the size of the board (number of rows and columns)
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @param maxDepth  the deepest ply to enumerate
+	 */
+	public GameTreeEnumerator(int size, int winStreak, int maxDepth) {
+		this(size, winStreak, maxDepth, false);
+	}
+
+	/**
+	 * Constructor for the GameTreeEnumerator class.
+	 *
+	 * @param size      the size of the board (number of rows and columns)
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @param maxDepth  the deepest ply to enumerate
+	 * @param useBoard  true to build every position with Board and check wins like Game, false to
+	 *                  walk the tree on a SearchBoard
+	 */
+	public GameTreeEnumerator(int size, int winStreak, int maxDepth, boolean useBoard) {
+		this.windows = StreakWindows.of(size, winStreak);
+		this.maxDepth = Math.min(maxDepth, size * size);
+		this.useBoard = useBoard;
+		int cells = size * size;
+		if (cells <= MAX_DISTINCT_CELLS) {
+			this.pow3 = new long[cells];
+			long power = 1;
+			for (int cell = 0; cell < cells; cell++) {
+				pow3[cell] = power;
+				power *= 3;
+			}
+			this.seen = new AtomicLongArray((int) ((power + 63) / 64));
+		} else {
+			this.pow3 = null;
+			this.seen = null;
+		}
+	}
+
+	/**
+	 * Enumerates the game tree from the empty board.
+	 *
+	 * @param threads the number of threads to use
+	 * @return the counts by depth
+	 */
+	public Counts enumerate(int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			Counts counts = pool.invoke(new Task(new int[0]));
+			// The empty board itself
+			counts.nodes[0]++;
+			if (counts.distinct != null) {
+				counts.distinct[0]++;
+			}
+			return counts;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/*
+	 * Sums an array of counts.
+	 */
+	private static long sum(long[] values) {
+		long total = 0;
+		for (long value : values) {
+			total += value;
+		}
+		return total;
+	}
+
+	/**
+	 * Counts of move sequences, results and distinct positions, indexed by depth.
+	 */
+	public class Counts {
+		/**
+		 * Number of move sequences reaching each depth.
+		 */
+		public final long[] nodes = new long[maxDepth + 1];
+		/**
+		 * Number of games won by X at each depth.
+		 */
+		public final long[] xWins = new long[maxDepth + 1];
+		/**
+		 * Number of games won by O at each depth.
+		 */
+		public final long[] oWins = new long[maxDepth + 1];
+		/**
+		 * Number of tied games (full board) at each depth.
+		 */
+		public final long[] ties = new long[maxDepth + 1];
+		/**
+		 * Number of distinct positions at each depth, null if the board is too large to track them.
+		 */
+		public final long[] distinct = seen == null ? null : new long[maxDepth + 1];
+
+		/*
+		 * Adds the counts of another task to these counts.
+		 */
+		private void add(Counts other) {
+			for (int depth = 0; depth <= maxDepth; depth++) {
+				nodes[depth] += other.nodes[depth];
+				xWins[depth] += other.xWins[depth];
+				oWins[depth] += other.oWins[depth];
+				ties[depth] += other.ties[depth];
+				if (distinct != null) {
+					distinct[depth] += other.distinct[depth];
+				}
+			}
+		}
+	}
+
+	/*
+	 * Enumerates the subtree below a sequence of moves: forks one task per move near the root,
+	 * and walks the tree on a single SearchBoard (or on Boards rebuilt for every position) further down.
+	 */
+	private class Task extends RecursiveTask<Counts> {
+		private static final long serialVersionUID = 1L;
+		private final int[] moves;
+
+		private Task(int[] moves) {
+			this.moves = moves;
+		}
+
+		@Override
+		protected Counts compute() {
+			long code = 0;
+			if (pow3 != null) {
+				for (int i = 0; i < moves.length; i++) {
+					code += (i % 2 + 1) * pow3[moves[i]];
+				}
+			}
+			return useBoard ? computeOnBoard(code) : computeOnSearchBoard(code);
+		}
+
+		/*
+		 * Enumerates the subtree on a SearchBoard, placing and undoing marks.
+		 *
+		 * @param code the base-3 code of the position after the moves
+		 * @return the counts of the subtree
+		 */
+		private Counts computeOnSearchBoard(long code) {
+			// Replay the moves on a board of our own; marks alternate starting with X
+			SearchBoard board = new SearchBoard(windows);
+			for (int i = 0; i < moves.length; i++) {
+				board.place(moves[i], i % 2);
+			}
+
+			Counts counts = new Counts();
+			if (moves.length >= SPLIT_DEPTH) {
+				walk(board, moves.length, code, counts);
+				return counts;
+			}
+
+			// Near the root: visit the children here and fork their subtrees
+			List<Task> tasks = new ArrayList<>();
+			int depth = moves.length + 1;
+			for (int cell = 0; cell < board.getCellCount() && depth <= maxDepth; cell++) {
+				if (!board.isEmpty(cell)) {
+					continue;
+				}
+				boolean goesOn = visit(board, cell, depth, code, counts);
+				board.undo(cell);
+				if (goesOn) {
+					int[] childMoves = Arrays.copyOf(moves, depth);
+					childMoves[moves.length] = cell;
+					tasks.add(new Task(childMoves));
+				}
+			}
+			return joinAll(tasks, counts);
+		}
+
+		/*
+		 * Enumerates the subtree with Board and Game: every position is built from scratch with
+		 * Board.putMark, since Board cannot take marks back, and checked with Game's win check.
+		 *
+		 * @param code the base-3 code of the position after the moves
+		 * @return the counts of the subtree
+		 */
+		private Counts computeOnBoard(long code) {
+			// Room for a whole game, so the walk can append moves in place
+			int[] line = Arrays.copyOf(moves, windows.getSize() * windows.getSize());
+			Counts counts = new Counts();
+			if (moves.length >= SPLIT_DEPTH) {
+				walkOnBoard(line, moves.length, code, counts);
+				return counts;
+			}
+
+			// Near the root: visit the children here and fork their subtrees
+			Board board = replay(line, moves.length);
+			List<Task> tasks = new ArrayList<>();
+			int depth = moves.length + 1;
+			for (int cell = 0; cell < line.length && depth <= maxDepth; cell++) {
+				if (board.getMark(cell / board.getSize(), cell % board.getSize()) != Mark.BLANK) {
+					continue;
+				}
+				line[moves.length] = cell;
+				if (visitOnBoard(line, depth, code, counts)) {
+					tasks.add(new Task(Arrays.copyOf(line, depth)));
+				}
+			}
+			return joinAll(tasks, counts);
+		}
+
+		/*
+		 * Runs the child tasks and adds their counts to the counts of this task.
+		 */
+		private Counts joinAll(List<Task> tasks, Counts counts) {
+			invokeAll(tasks);
+			for (Task task : tasks) {
+				counts.add(task.join());
+			}
+			return counts;
+		}
+
+		/*
+		 * Walks every move sequence below the position on the calling thread.
+		 *
+		 * @param board  the position, restored before returning
+		 * @param depth  the number of marks on the board
+		 * @param code   the base-3 code of the position
+		 * @param counts the counts to add to
+		 */
+		private void walk(SearchBoard board, int depth, long code, Counts counts) {
+			if (depth == maxDepth) {
+				return;
+			}
+			for (int cell = 0; cell < board.getCellCount(); cell++) {
+				if (!board.isEmpty(cell)) {
+					continue;
+				}
+				if (visit(board, cell, depth + 1, code, counts)) {
+					walk(board, depth + 1, pow3 == null ? 0 : code + (depth % 2 + 1) * pow3[cell], counts);
+				}
+				board.undo(cell);
+			}
+		}
+
+		/*
+		 * Places the next mark on a cell and counts the position reached; the caller undoes the move.
+		 *
+		 * @param board  the position before the move
+		 * @param cell   the cell of the move
+		 * @param depth  the number of marks after the move
+		 * @param code   the base-3 code of the position before the move
+		 * @param counts the counts to add to
+		 * @return true if the game goes on after the move
+		 */
+		private boolean visit(SearchBoard board, int cell, int depth, long code, Counts counts) {
+			int mark = (depth - 1) % 2;
+			countPosition(cell, depth, code, counts);
+			if (board.place(cell, mark)) {
+				if (mark == Mark.X.ordinal()) {
+					counts.xWins[depth]++;
+				} else {
+					counts.oWins[depth]++;
+				}
+				return false;
+			}
+			if (board.isFull()) {
+				counts.ties[depth]++;
+				return false;
+			}
+			return true;
+		}
+
+		/*
+		 * Walks every move sequence below the position on the calling thread, with Board and Game.
+		 *
+		 * @param line   the moves so far, followed by room for the rest of the game
+		 * @param depth  the number of moves in the line
+		 * @param code   the base-3 code of the position
+		 * @param counts the counts to add to
+		 */
+		private void walkOnBoard(int[] line, int depth, long code, Counts counts) {
+			if (depth == maxDepth) {
+				return;
+			}
+			Board board = replay(line, depth);
+			int size = board.getSize();
+			for (int cell = 0; cell < line.length; cell++) {
+				if (board.getMark(cell / size, cell % size) != Mark.BLANK) {
+					continue;
+				}
+				line[depth] = cell;
+				if (visitOnBoard(line, depth + 1, code, counts)) {
+					walkOnBoard(line, depth + 1, pow3 == null ? 0 : code + (depth % 2 + 1) * pow3[cell],
+							counts);
+				}
+			}
+		}
+
+		/*
+		 * Counts the position reached by the last move of a line, built with Board and checked like
+		 * Game.run checks the mark that just moved.
+		 *
+		 * @param line   the moves of the position
+		 * @param depth  the number of moves in the line, including the last one
+		 * @param code   the base-3 code of the position before the last move
+		 * @param counts the counts to add to
+		 * @return true if the game goes on after the move
+		 */
+		private boolean visitOnBoard(int[] line, int depth, long code, Counts counts) {
+			countPosition(line[depth - 1], depth, code, counts);
+			Board board = replay(line, depth);
+			Mark mark = markOf(depth - 1);
+			if (Game.hasStreak(board, mark, windows.getWinStreak())) {
+				if (mark == Mark.X) {
+					counts.xWins[depth]++;
+				} else {
+					counts.oWins[depth]++;
+				}
+				return false;
+			}
+			if (depth == line.length) {
+				counts.ties[depth]++;
+				return false;
+			}
+			return true;
+		}
+
+		/*
+		 * Builds a Board holding the first moves of a line.
+		 *
+		 * @param line   the moves, marks alternating starting with X
+		 * @param length the number of moves to play
+		 * @return the board
+		 */
+		private Board replay(int[] line, int length) {
+			Board board = new Board(windows.getSize());
+			int size = board.getSize();
+			for (int i = 0; i < length; i++) {
+				if (!board.putMark(markOf(i), line[i] / size, line[i] % size)) {
+					throw new IllegalStateException("Board rejected move " + i + " on cell " + line[i]);
+				}
+			}
+			return board;
+		}
+
+		/*
+		 * Returns the mark of the i-th move of a game; X moves first.
+		 */
+		private Mark markOf(int move) {
+			return move % 2 == 0 ? Mark.X : Mark.O;
+		}
+
+		/*
+		 * Counts a position reached at a depth, and counts it as distinct if it was not seen before.
+		 *
+		 * @param cell   the cell of the last move
+		 * @param depth  the number of marks after the move
+		 * @param code   the base-3 code of the position before the move
+		 * @param counts the counts to add to
+		 */
+		private void countPosition(int cell, int depth, long code, Counts counts) {
+			counts.nodes[depth]++;
+			if (seen != null && markSeen(code + ((depth - 1) % 2 + 1) * pow3[cell])) {
+				counts.distinct[depth]++;
+			}
+		}
+
+		/*
+		 * Sets the bit of a position.
+		 *
+		 * @param index the base-3 code of the position
+		 * @return true if the position was not seen before
+		 */
+		private boolean markSeen(long index) {
+			int word = (int) (index >>> 6);
+			long bit = 1L << (index & 63);
+			while (true) {
+				long current = seen.get(word);
+				if ((current & bit) != 0) {
+					return false;
+				}
+				if (seen.compareAndSet(word, current, current | bit)) {
+					return true;
+				}
+			}
+		}
+	}
+}
@@ -49,4 +49,14 @@ public class HumanPlayer implements Player {
 			break;
 		}
 	}
+
+	/**
+	 * A human needs to see the board before typing a move.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isInteractive() {
+		return true;
+	}
 }
\ No newline at end of file
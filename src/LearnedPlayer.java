@@ -0,0 +1,132 @@
+import java.util.Random;
+
+/**
+ * A player that picks the move with the best value under a trained LinearEvaluator (one-ply search).
+ * Instead of placing each candidate mark and re-evaluating the whole board, the player counts the
+ * marks in every window once per turn and then scores each empty cell by how much its windows'
+ * weights would change, so a move costs one pass over the windows plus one pass over the empty cells.
+ * Blocking falls out of the same computation: placing a mark into an opponent window kills it and
+ * removes its (negative) weight.
+ * Implements the Player interface.
+ *
+ * @author aron isaacs
+ * @see Player
+ * @see LinearEvaluator
+ * @see SelfPlayTrainer
+ */
+public class LearnedPlayer implements Player {
+	private final LinearEvaluator evaluator;
+	private final int winStreak;
+	// gain[own * (winStreak + 1) + opponent] is the change of a window's weight when the player
+	// adds a mark to a window holding own and opponent marks
+	private final float[] gain;
+	// Probability of playing a random move instead of the best one, used for self-play exploration
+	private final double explorationRate;
+	private final Random rand = new Random();
+
+	// Window tables and per-window mark counts, rebuilt only when the board size changes
+	private StreakWindows windows;
+	private int[] ownCounts;
+	private int[] opponentCounts;
+
+	/**
+	 * Constructor to initialize a player that always plays its best move.
+	 *
+	 * @param evaluator the evaluation function to play by
+	 */
+	public LearnedPlayer(LinearEvaluator evaluator) {
+		this(evaluator, 0);
+	}
+
+	/**
+	 * Constructor to initialize a player that sometimes plays a random move.
+	 *
+	 * @param evaluator       the evaluation function to play by
+	 * @param explorationRate the probability of playing a random move on each turn
+	 */
+	public LearnedPlayer(LinearEvaluator evaluator, double explorationRate) {
+		this.evaluator = evaluator;
+		this.winStreak = evaluator.getWinStreak();
+		this.explorationRate = explorationRate;
+		this.gain = new float[(winStreak + 1) * (winStreak + 1)];
+		for (int own = 0; own < winStreak; own++) {
+			for (int opponent = 0; opponent <= winStreak; opponent++) {
+				gain[own * (winStreak + 1) + opponent] =
+						evaluator.windowWeight(own + 1, opponent) - evaluator.windowWeight(own, opponent);
+			}
+		}
+	}
+
+	/**
+	 * Plays a turn by placing the mark on the empty cell with the highest evaluation, or on a random
+	 * empty cell with probability explorationRate.
+	 *
+	 * @param board the game board where the mark will be placed
+	 * @param mark  the mark (X or O) to be placed on the board
+	 */
+	@Override
+	public void playTurn(Board board, Mark mark) {
+		int size = board.getSize();
+		if (windows == null || windows.getSize() != size) {
+			windows = new StreakWindows(size, winStreak);
+			ownCounts = new int[windows.getWindowCount()];
+			opponentCounts = new int[windows.getWindowCount()];
+		}
+
+		// Count own and opponent marks in every window
+		for (int w = 0; w < windows.getWindowCount(); w++) {
+			int own = 0;
+			int opponent = 0;
+			for (int k = 0; k < winStreak; k++) {
+				int cell = windows.getCell(w, k);
+				Mark cellMark = board.getMark(cell / size, cell % size);
+				if (cellMark == mark) {
+					own++;
+				} else if (cellMark != Mark.BLANK) {
+					opponent++;
+				}
+			}
+			ownCounts[w] = own;
+			opponentCounts[w] = opponent;
+		}
+
+		boolean explore = explorationRate > 0 && rand.nextDouble() < explorationRate;
+		int bestCell = -1;
+		float bestGain = Float.NEGATIVE_INFINITY;
+		int emptyCells = 0;
+		for (int cell = 0; cell < size * size; cell++) {
+			if (board.getMark(cell / size, cell % size) != Mark.BLANK) {
+				continue;
+			}
+			emptyCells++;
+			if (explore) {
+				// Reservoir sampling picks a uniformly random empty cell in a single pass
+				if (rand.nextInt(emptyCells) == 0) {
+					bestCell = cell;
+				}
+				continue;
+			}
+			float cellGain = 0;
+			for (int w : windows.getWindowsOf(cell)) {
+				cellGain += gain[ownCounts[w] * (winStreak + 1) + opponentCounts[w]];
+			}
+			if (cellGain > bestGain) {
+				bestGain = cellGain;
+				bestCell = cell;
+			}
+		}
+		if (bestCell >= 0) {
+			board.putMark(mark, bestCell / size, bestCell % size);
+		}
+	}
+
+	/**
+	 * This player is deterministic unless it explores with random moves.
+	 *
+	 * @return true if the exploration rate is 0
+	 */
+	@Override
+	public boolean isDeterministic() {
+		return explorationRate == 0;
+	}
+}
@@ -0,0 +1,283 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * A linear evaluation function over window patterns, trained by logistic regression on self-play
+ * games (see SelfPlayTrainer).
+ * A position is described from the point of view of the player who just moved: for every window of
+ * winStreak cells that holds only that player's marks we count how many marks it holds, and likewise
+ * for windows holding only the opponent's marks. Windows holding both marks can never be won and
+ * do not contribute. The evaluation is the dot product of these counts with the weights, and
+ * sigmoid(evaluation) estimates the probability that the player who just moved wins the game.
+ * Weights are kept in a primitive array and saved in a small binary file that loads in milliseconds.
+ * The counts grow with the board, so weights are trained for, and only loaded for, one board size.
+ *
+ * @author aron isaacs
+ * @see StreakWindows
+ * @see LearnedPlayer
+ * @see SelfPlayTrainer
+ */
+public class LinearEvaluator {
+	// Identifies a weights file written by this class
+	private static final int MAGIC = 0x54545732; // "TTW2"
+	private static final String WEIGHTS_FILE_FORMAT = "learned-%dx%d-%d.weights";
+	private static final String LOAD_WARNING = "Could not load %s, using default weights: %s";
+
+	private final int size;
+	private final int winStreak;
+	// weights[0] is the bias, weights[k] belongs to windows with k own marks and
+	// weights[winStreak + k] to windows with k opponent marks, for 1 <= k <= winStreak
+	private final float[] weights;
+
+	/**
+	 * Constructor to initialize an evaluator with hand-set default weights: longer own streaks are
+	 * good, longer opponent streaks are bad, and a complete own window wins.
+	 *
+	 * @param size      the size of the board the evaluator is meant for
+	 * @param winStreak the number of consecutive marks needed to win
+	 */
+	public LinearEvaluator(int size, int winStreak) {
+		this(size, winStreak, new float[2 * winStreak + 1]);
+		float value = 0.1f;
+		for (int k = 1; k < winStreak; k++) {
+			weights[k] = value;
+			weights[winStreak + k] = -2 * value;
+			value *= 3;
+		}
+		weights[winStreak] = 100;
+		weights[2 * winStreak] = -100;
+	}
+
+	/**
+	 * Constructor to initialize an evaluator with the given weights.
+	 *
+	 * @param size      the size of the board the weights were trained for
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @param weights   the weights, of length 2 * winStreak + 1 (used directly, not copied)
+	 */
+	public LinearEvaluator(int size, int winStreak, float[] weights) {
+		if (weights.length != 2 * winStreak + 1) {
+			throw new IllegalArgumentException("Expected " + (2 * winStreak + 1) + " weights");
+		}
+		this.size = size;
+		this.winStreak = winStreak;
+		this.weights = weights;
+	}
+
+	/**
+	 * Returns the name of the weights file used by default for the given board size and win streak.
+	 *
+	 * @param size      the size of the board
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @return the weights file name, e.g. "learned-4x4-3.weights"
+	 */
+	public static String weightsFileName(int size, int winStreak) {
+		return String.format(WEIGHTS_FILE_FORMAT, size, size, winStreak);
+	}
+
+	/**
+	 * Loads the evaluator from the default weights file for the given board size and win streak,
+	 * falling back to the default weights if the file is missing or does not match.
+	 *
+	 * @param size      the size of the board
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @return the loaded evaluator, or one with default weights
+	 */
+	public static LinearEvaluator loadOrDefault(int size, int winStreak) {
+		String path = weightsFileName(size, winStreak);
+		try {
+			LinearEvaluator evaluator = load(path);
+			if (evaluator.getSize() == size && evaluator.getWinStreak() == winStreak) {
+				return evaluator;
+			}
+			Logger.getGlobal().warning(String.format(LOAD_WARNING, path, "board size or win streak mismatch"));
+		} catch (IOException e) {
+			Logger.getGlobal().warning(String.format(LOAD_WARNING, path, e.getMessage()));
+		}
+		return new LinearEvaluator(size, winStreak);
+	}
+
+	/**
+	 * Loads an evaluator from a binary weights file written by save.
+	 *
+	 * @param path the file to read
+	 * @return the loaded evaluator
+	 * @throws IOException if the file cannot be read or is not a weights file
+	 */
+	public static LinearEvaluator load(String path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("not a weights file");
+			}
+			int size = in.readInt();
+			int winStreak = in.readInt();
+			int count = in.readInt();
+			// Check the header before allocating, so a damaged file cannot request a huge array
+			if (size < 1 || winStreak < 1 || count != 2 * winStreak + 1) {
+				throw new IOException("corrupt weights file header");
+			}
+			float[] weights = new float[count];
+			for (int i = 0; i < weights.length; i++) {
+				weights[i] = in.readFloat();
+			}
+			return new LinearEvaluator(size, winStreak, weights);
+		}
+	}
+
+	/**
+	 * Saves the weights to a binary file: a magic number, the board size, the win streak, the weight
+	 * count and the weights themselves.
+	 *
+	 * @param path the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(String path) throws IOException {
+		try (DataOutputStream out =
+					 new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(size);
+			out.writeInt(winStreak);
+			out.writeInt(weights.length);
+			for (float weight : weights) {
+				out.writeFloat(weight);
+			}
+		}
+	}
+
+	/**
+	 * Returns the size of the board the evaluator is meant for.
+	 *
+	 * @return the board size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of consecutive marks needed to win.
+	 *
+	 * @return the win streak length
+	 */
+	public int getWinStreak() {
+		return winStreak;
+	}
+
+	/**
+	 * Returns the number of features (and weights), including the bias.
+	 *
+	 * @return the feature count
+	 */
+	public int getFeatureCount() {
+		return weights.length;
+	}
+
+	/**
+	 * Returns the weight of a single window holding the given numbers of marks.
+	 *
+	 * @param own      the number of marks of the player who just moved
+	 * @param opponent the number of opponent marks
+	 * @return the weight of the window, 0 for empty windows and windows holding both marks
+	 */
+	public float windowWeight(int own, int opponent) {
+		if (own > 0 && opponent == 0) {
+			return weights[own];
+		}
+		if (opponent > 0 && own == 0) {
+			return weights[winStreak + opponent];
+		}
+		return 0;
+	}
+
+	/**
+	 * Extracts the window features of the board from the point of view of the given mark.
+	 *
+	 * @param board    the board to describe
+	 * @param mark     the mark of the player who just moved
+	 * @param windows  the windows of the board
+	 * @param features the array to fill, of length getFeatureCount() starting at offset
+	 * @param offset   the index of the first feature in the array
+	 */
+	public void extractFeatures(Board board, Mark mark, StreakWindows windows, float[] features,
+								int offset) {
+		int size = board.getSize();
+		Arrays.fill(features, offset, offset + weights.length, 0);
+		features[offset] = 1;
+		for (int w = 0; w < windows.getWindowCount(); w++) {
+			int own = 0;
+			int opponent = 0;
+			for (int k = 0; k < winStreak; k++) {
+				int cell = windows.getCell(w, k);
+				Mark cellMark = board.getMark(cell / size, cell % size);
+				if (cellMark == mark) {
+					own++;
+				} else if (cellMark != Mark.BLANK) {
+					opponent++;
+				}
+			}
+			if (own > 0 && opponent == 0) {
+				features[offset + own]++;
+			} else if (opponent > 0 && own == 0) {
+				features[offset + winStreak + opponent]++;
+			}
+		}
+	}
+
+	/**
+	 * Evaluates a feature vector.
+	 *
+	 * @param features the features, as filled by extractFeatures
+	 * @param offset   the index of the first feature in the array
+	 * @return the logit of the probability that the player who just moved wins
+	 */
+	public float evaluate(float[] features, int offset) {
+		float sum = 0;
+		for (int i = 0; i < weights.length; i++) {
+			sum += weights[i] * features[offset + i];
+		}
+		return sum;
+	}
+
+	/**
+	 * Performs one logistic regression gradient step on a single labelled position.
+	 * The step is divided by the squared norm of the features (normalized SGD). Window counts grow
+	 * with the board, so a fixed step that suits a 3x3 board makes training diverge on a 9x9 board;
+	 * the normalized step behaves the same on every board size.
+	 *
+	 * @param features     the features, as filled by extractFeatures
+	 * @param offset       the index of the first feature in the array
+	 * @param label        the game result for the player who just moved: 1 win, 0.5 tie, 0 loss
+	 * @param learningRate the step size
+	 * @return the log loss of the position before the update
+	 */
+	public double update(float[] features, int offset, float label, float learningRate) {
+		double probability = 1 / (1 + Math.exp(-evaluate(features, offset)));
+		float norm = 0;
+		for (int i = 0; i < weights.length; i++) {
+			norm += features[offset + i] * features[offset + i];
+		}
+		// The bias feature is always 1, so the norm is never 0
+		float step = (float) (learningRate * (label - probability) / norm);
+		for (int i = 0; i < weights.length; i++) {
+			weights[i] += step * features[offset + i];
+		}
+		// Clamp so that a certain prediction does not produce an infinite loss
+		probability = Math.min(Math.max(probability, 1e-7), 1 - 1e-7);
+		return -(label * Math.log(probability) + (1 - label) * Math.log(1 - probability));
+	}
+
+	/**
+	 * Returns a copy of this evaluator, so that training can continue while other threads read it.
+	 *
+	 * @return an independent copy of the evaluator
+	 */
+	public LinearEvaluator copy() {
+		return new LinearEvaluator(size, winStreak, weights.clone());
+	}
+}
@@ -28,4 +28,14 @@ public class NaivePlayer implements Player {
 			}
 		}
 	}
+
+	/**
+	 * This player always picks the same square on the same board.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isDeterministic() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,371 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A parallel alpha-beta game-tree search using Lazy SMP.
+ * Every thread runs its own iterative-deepening negamax search of the same position on its own
+ * SearchBoard. The threads share nothing but a lock-free TranspositionTable and a stop flag, and they
+ * are made to diverge slightly (odd helpers start one ply deeper and every helper tries the root
+ * moves in a different order), so each thread keeps finding results that speed up the others.
+ * The search stops when the time budget runs out or the whole game tree has been searched, and
+ * returns the best move of the thread that completed the deepest iteration.
+ * Leaves are scored with a LinearEvaluator; wins are scored so that faster wins are preferred.
+ *
+ * @author aron isaacs
+ * @see SearchPlayer
+ * @see SearchBoard
+ * @see TranspositionTable
+ */
+public class ParallelSearch implements AutoCloseable {
+	/**
+	 * Score of a win at the root; a win found n plies deeper scores WIN_SCORE - n.
+	 */
+	public static final int WIN_SCORE = 1_000_000;
+	private static final int MAX_PLY = 256;
+	// Scores beyond this magnitude are wins or losses
+	private static final int WIN_THRESHOLD = WIN_SCORE - MAX_PLY;
+	// Evaluations are turned into integer scores with this resolution
+	private static final float EVALUATION_SCALE = 1000;
+	private static final int TABLE_ENTRIES = 1 << 20;
+	// How often each thread checks the clock, in nodes (a power of two)
+	private static final int NODES_PER_TIME_CHECK = 1024;
+
+	private final LinearEvaluator evaluator;
+	private final int threads;
+	private final long budgetNanos;
+	private final TranspositionTable table = new TranspositionTable(TABLE_ENTRIES);
+	// Runs the helper threads, null when searching on a single thread
+	private final ExecutorService helpers;
+	private StreakWindows windows;
+
+	private volatile boolean stopped;
+	private long deadline;
+
+	// Statistics of the last search
+	private int lastDepth;
+	private int lastScore;
+	private long lastNodes;
+
+	/**
+	 * Constructor to initialize a search.
+	 *
+	 * @param evaluator    the evaluation function for leaf positions
+	 * @param threads      the number of search threads, including the calling thread
+	 * @param budgetMillis the time budget of each search in milliseconds
+	 */
+	public ParallelSearch(LinearEvaluator evaluator, int threads, long budgetMillis) {
+		this.evaluator = evaluator;
+		this.threads = Math.max(threads, 1);
+		this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+		this.helpers = this.threads == 1 ? null : Executors.newFixedThreadPool(this.threads - 1, task -> {
+			Thread thread = new Thread(task, "search-helper");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Searches the position and returns the best move for the given mark.
+	 *
+	 * @param board the position to search; it is only read
+	 * @param mark  the mark (X or O) of the player to move
+	 * @return the cell index (row * size + col) of the best move, or -1 if the board is full
+	 */
+	public int findBestMove(Board board, Mark mark) {
+		int size = board.getSize();
+		if (windows == null || windows.getSize() != size) {
+			windows = new StreakWindows(size, evaluator.getWinStreak());
+			// Hashes do not depend on the board size (the empty board always hashes to 0), so entries
+			// of another size would be taken for positions of this one
+			table.clear();
+		}
+		stopped = false;
+		deadline = System.nanoTime() + budgetNanos;
+
+		Worker[] workers = new Worker[threads];
+		for (int id = 0; id < threads; id++) {
+			workers[id] = new Worker(id, new SearchBoard(windows, board), mark.ordinal());
+		}
+		List<Future<?>> futures = new ArrayList<>();
+		for (int id = 1; id < threads; id++) {
+			futures.add(helpers.submit(workers[id]::run));
+		}
+		// The calling thread is the main search thread; when it is done, everybody stops
+		workers[0].run();
+		stopped = true;
+		for (Future<?> future : futures) {
+			try {
+				future.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Search thread failed", e.getCause());
+			}
+		}
+
+		// Take the move of the deepest completed iteration, preferring the main thread on ties
+		Worker best = workers[0];
+		lastNodes = 0;
+		for (Worker worker : workers) {
+			lastNodes += worker.nodes;
+			if (worker.completedDepth > best.completedDepth) {
+				best = worker;
+			}
+		}
+		lastDepth = best.completedDepth;
+		lastScore = best.bestScore;
+		return best.bestMove >= 0 ? best.bestMove : workers[0].firstMove();
+	}
+
+	/**
+	 * Returns the depth reached by the last search.
+	 *
+	 * @return the depth of the deepest completed iteration
+	 */
+	public int getLastDepth() {
+		return lastDepth;
+	}
+
+	/**
+	 * Returns the score of the last search, from the point of view of the player to move.
+	 *
+	 * @return the score, at least WIN_SCORE - 256 in magnitude for a forced win or loss
+	 */
+	public int getLastScore() {
+		return lastScore;
+	}
+
+	/**
+	 * Returns the number of positions visited by all threads in the last search.
+	 *
+	 * @return the node count
+	 */
+	public long getLastNodes() {
+		return lastNodes;
+	}
+
+	/**
+	 * Stops the helper threads. The search must not be used afterwards.
+	 */
+	@Override
+	public void close() {
+		if (helpers != null) {
+			helpers.shutdown();
+		}
+	}
+
+	/*
+	 * Converts a score relative to the root into a score relative to the node at the given ply, so
+	 * that wins stored in the table stay correct when the position is reached at another ply.
+	 */
+	private static int toTable(int score, int ply) {
+		if (score >= WIN_THRESHOLD) {
+			return score + ply;
+		}
+		if (score <= -WIN_THRESHOLD) {
+			return score - ply;
+		}
+		return score;
+	}
+
+	/*
+	 * Converts a score read from the table back into a score relative to the root.
+	 */
+	private static int fromTable(int score, int ply) {
+		if (score >= WIN_THRESHOLD) {
+			return score - ply;
+		}
+		if (score <= -WIN_THRESHOLD) {
+			return score + ply;
+		}
+		return score;
+	}
+
+	/*
+	 * One search thread with its own board, move lists and history table.
+	 */
+	private class Worker {
+		private final int id;
+		private final SearchBoard board;
+		private final int rootMark;
+		// Move list for every ply, so that no allocation happens during the search
+		private final int[][] moves;
+		// history[mark][cell] grows when a move causes a cutoff, to try it early next time
+		private final int[][] history;
+		private long nodes = 0;
+		private int completedDepth = 0;
+		private int bestMove = -1;
+		private int bestScore = 0;
+		private int rootBestMove = -1;
+
+		private Worker(int id, SearchBoard board, int rootMark) {
+			this.id = id;
+			this.board = board;
+			this.rootMark = rootMark;
+			this.moves = new int[board.getCellCount() + 1][board.getCellCount()];
+			this.history = new int[2][board.getCellCount()];
+		}
+
+		/*
+		 * Iterative deepening until the time is up, the game tree is exhausted or a forced result
+		 * is found.
+		 */
+		private void run() {
+			int maxDepth = board.getCellCount() - board.getMarkCount();
+			// Lazy SMP: odd helpers start one ply deeper so threads work on different depths
+			for (int depth = 1 + id % 2; depth <= maxDepth && !stopped; depth++) {
+				int score = negamax(depth, -WIN_SCORE, WIN_SCORE, 0, rootMark);
+				if (stopped && completedDepth > 0) {
+					break;
+				}
+				completedDepth = depth;
+				bestMove = rootBestMove;
+				bestScore = score;
+				if (Math.abs(score) >= WIN_THRESHOLD) {
+					break;
+				}
+			}
+		}
+
+		/*
+		 * Negamax alpha-beta search with the transposition table.
+		 *
+		 * @param depth remaining depth in plies
+		 * @param alpha the lower bound of interesting scores
+		 * @param beta  the upper bound of interesting scores
+		 * @param ply   the distance from the root
+		 * @param mark  the ordinal of the mark to move
+		 * @return the score from the point of view of the mark to move
+		 */
+		private int negamax(int depth, int alpha, int beta, int ply, int mark) {
+			if ((++nodes & (NODES_PER_TIME_CHECK - 1)) == 0 && System.nanoTime() > deadline) {
+				stopped = true;
+			}
+			// Let the first iteration finish so there is always a move to play
+			if (stopped && completedDepth > 0) {
+				return 0;
+			}
+
+			long hash = board.getHash();
+			long entry = table.probe(hash);
+			int tableMove = -1;
+			if (entry != 0) {
+				tableMove = TranspositionTable.move(entry);
+				if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+					int score = fromTable(TranspositionTable.score(entry), ply);
+					int bound = TranspositionTable.bound(entry);
+					if (bound == TranspositionTable.EXACT
+							|| (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+							|| (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+						return score;
+					}
+				}
+			}
+			if (depth == 0) {
+				float evaluation = board.evaluate(evaluator, mark) * EVALUATION_SCALE;
+				return (int) Math.max(Math.min(evaluation, WIN_THRESHOLD - 1), -WIN_THRESHOLD + 1);
+			}
+
+			int[] list = moves[ply];
+			int count = orderMoves(list, tableMove, mark);
+			if (ply == 0 && id > 0 && count > 2) {
+				// Helpers try the root moves after the first in a rotated order
+				rotate(list, 1, count, id % (count - 1));
+			}
+
+			int originalAlpha = alpha;
+			int best = -WIN_SCORE;
+			int bestCell = -1;
+			for (int i = 0; i < count; i++) {
+				int cell = list[i];
+				int score;
+				if (board.place(cell, mark)) {
+					score = WIN_SCORE - ply - 1;
+				} else if (board.isFull() || board.isDeadDraw()) {
+					score = 0;
+				} else {
+					score = -negamax(depth - 1, -beta, -alpha, ply + 1, 1 - mark);
+				}
+				board.undo(cell);
+				if (stopped && completedDepth > 0) {
+					return 0;
+				}
+				if (score > best) {
+					best = score;
+					bestCell = cell;
+				}
+				if (score > alpha) {
+					alpha = score;
+				}
+				if (alpha >= beta) {
+					history[mark][cell] += depth * depth;
+					break;
+				}
+			}
+
+			int bound = best <= originalAlpha ? TranspositionTable.UPPER_BOUND
+					: best >= beta ? TranspositionTable.LOWER_BOUND : TranspositionTable.EXACT;
+			table.store(hash, toTable(best, ply), depth, bound, bestCell);
+			if (ply == 0) {
+				rootBestMove = bestCell;
+			}
+			return best;
+		}
+
+		/*
+		 * Fills the list with the empty cells: the table move first, then by descending history score.
+		 *
+		 * @return the number of moves
+		 */
+		private int orderMoves(int[] list, int tableMove, int mark) {
+			int[] scores = history[mark];
+			int count = 0;
+			// A damaged or colliding entry may hold any move, so only trust cells on this board
+			if (tableMove >= 0 && tableMove < board.getCellCount() && board.isEmpty(tableMove)) {
+				list[count++] = tableMove;
+			}
+			int first = count;
+			for (int cell = 0; cell < board.getCellCount(); cell++) {
+				if (cell == tableMove || !board.isEmpty(cell)) {
+					continue;
+				}
+				// Insertion sort, the lists are short
+				int i = count++;
+				while (i > first && scores[list[i - 1]] < scores[cell]) {
+					list[i] = list[i - 1];
+					i--;
+				}
+				list[i] = cell;
+			}
+			return count;
+		}
+
+		/*
+		 * Rotates list[from..to) left by the given distance.
+		 */
+		private void rotate(int[] list, int from, int to, int distance) {
+			for (int step = 0; step < distance; step++) {
+				int first = list[from];
+				System.arraycopy(list, from + 1, list, from, to - from - 1);
+				list[to - 1] = first;
+			}
+		}
+
+		/*
+		 * Returns some legal move, used only if the search found none.
+		 */
+		private int firstMove() {
+			for (int cell = 0; cell < board.getCellCount(); cell++) {
+				if (board.isEmpty(cell)) {
+					return cell;
+				}
+			}
+			return -1;
+		}
+	}
+}
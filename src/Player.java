@@ -1,12 +1,13 @@
 /**
  * Player interface for a Tic-Tac-Toe game.
  * Defines a method for playing a turn by placing a mark on the board.
+ * Players that hold resources release them when closed; for the others close does nothing.
  *
  * @author aron isaacs
  * @see Board
  * @see Mark
  */
-public interface Player {
+public interface Player extends AutoCloseable {
 	/**
 	 * Plays a turn by placing the given mark on the board.
 	 *
@@ -14,4 +15,34 @@ public interface Player {
 	 * @param mark  the mark (X or O) to be placed on the board
 	 */
 	void playTurn(Board board, Mark mark);
+
+	/**
+	 * Tells whether the player always plays the same move in the same position, regardless of any
+	 * earlier game. Two deterministic players always play the same game, which lets a Tournament
+	 * play it only once.
+	 * Players are assumed not to be deterministic unless they say so.
+	 *
+	 * @return true if the player's moves depend only on the board and its mark
+	 */
+	default boolean isDeterministic() {
+		return false;
+	}
+
+	/**
+	 * Tells whether the player is a person who needs to see the board before choosing a move.
+	 * Before an interactive player's turn, the game flushes its renderer.
+	 *
+	 * @return true if the player reads its moves from a user
+	 */
+	default boolean isInteractive() {
+		return false;
+	}
+
+	/**
+	 * Releases the player's resources, such as search threads.
+	 * By default there is nothing to release.
+	 */
+	@Override
+	default void close() {
+	}
 }
\ No newline at end of file
@@ -7,8 +7,16 @@
  * @see WhateverPlayer
  * @see NaivePlayer
  * @see SmartPlayer
+ * @see LearnedPlayer
+ * @see SearchPlayer
  */
 public class PlayerFactory {
+	// Separates a player type from its options, e.g. "search:4:50"
+	private static final String OPTION_SEPARATOR = ":";
+	// Board size and win streak of a default game, used when none are given
+	private static final int DEFAULT_SIZE = 4;
+	private static final int DEFAULT_WIN_STREAK = 3;
+
 	/**
 	 * Default constructor.
 	 */
@@ -22,14 +30,65 @@ public class PlayerFactory {
 	 * @return the created Player instance or null if the type is unrecognized
 	 */
 	public Player buildPlayer(String playerType) {
+		return buildPlayer(playerType, DEFAULT_SIZE, DEFAULT_WIN_STREAK);
+	}
+
+	/**
+	 * Builds and returns a Player instance based on the specified type, for games with the given
+	 * board size and win streak.
+	 *
+	 * @param playerType the type of player to create ("human", "whatever", "naive", "smart",
+	 *                   "learned" or "search"); a search player may be given its thread count and
+	 *                   time budget per move in milliseconds, as "search:threads:millis"
+	 *                   (e.g. "search:4:50", or "search:4" for the default budget)
+	 * @param size       the size of the board (used by the learned and search players to pick
+	 *                   their weights)
+	 * @param winStreak  the number of consecutive marks needed to win (used by the learned and
+	 *                   search players)
+	 * @return the created Player instance or null if the type is unrecognized
+	 */
+	public Player buildPlayer(String playerType, int size, int winStreak) {
 		// Create and return the appropriate Player instance based on the playerType
 		//note the use of Java 14+ switch expression
-		return switch (playerType.toLowerCase()) {
+		String[] parts = playerType.toLowerCase().split(OPTION_SEPARATOR, -1);
+		if (parts.length > 1 && !parts[0].equals("search")) {
+			return null;
+		}
+		return switch (parts[0]) {
 			case "human" -> new HumanPlayer();
 			case "whatever" -> new WhateverPlayer();
 			case "naive" -> new NaivePlayer();
 			case "smart" -> new SmartPlayer();
+			case "learned" -> new LearnedPlayer(LinearEvaluator.loadOrDefault(size, winStreak));
+			case "search" -> buildSearchPlayer(parts, size, winStreak);
 			default -> null;
 		};
 	}
+
+	/*
+	 * Builds a search player from "search[:threads[:millis]]", using all cores and the default time
+	 * budget for the options not given.
+	 *
+	 * @param parts the player type split at the option separator
+	 * @return the search player, or null if the options are not positive numbers
+	 */
+	private static Player buildSearchPlayer(String[] parts, int size, int winStreak) {
+		if (parts.length > 3) {
+			return null;
+		}
+		int threads;
+		long budgetMillis;
+		try {
+			threads = parts.length > 1
+					? Integer.parseInt(parts[1]) : Runtime.getRuntime().availableProcessors();
+			budgetMillis = parts.length > 2
+					? Long.parseLong(parts[2]) : SearchPlayer.DEFAULT_BUDGET_MILLIS;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		if (threads < 1 || budgetMillis < 1) {
+			return null;
+		}
+		return new SearchPlayer(LinearEvaluator.loadOrDefault(size, winStreak), threads, budgetMillis);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted for every renderBoard call a Game makes.
+ * Render calls are very frequent, so the event is disabled by default;
+ * enable it with the JFR setting tictactoe.Render#enabled=true.
+ *
+ * @author aron isaacs
+ * @see Renderer#renderBoard(Board)
+ */
+@Name("tictactoe.Render")
+@Label("Render")
+@Category("Tic Tac Toe")
+@Description("Rendering of the board after a turn")
+@Enabled(false)
+public class RenderEvent extends jdk.jfr.Event {
+	@Label("Renderer Type")
+	String rendererType;
+}
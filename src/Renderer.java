@@ -1,15 +1,53 @@
 /**
  * Renderer interface for rendering the game board.
  * Defines a method for rendering the board state.
+ * Renderers that draw in the background can be flushed and closed; for the others both do nothing.
  *
  * @author aron isaacs
  * @see Board
  */
-public interface Renderer {
+public interface Renderer extends AutoCloseable {
 	/**
 	 * Renders the given game board.
 	 *
 	 * @param board the game board to be rendered
 	 */
 	void renderBoard(Board board);
+
+	/**
+	 * Called once when a game ends, with the final board.
+	 * The final board has already been passed to renderBoard, so by default nothing is done;
+	 * renderers that may skip frames use this to make sure the final board is always shown.
+	 *
+	 * @param board the game board at the end of the game
+	 */
+	default void gameEnded(Board board) {
+	}
+
+	/**
+	 * Tells whether the renderer shows nothing, so nobody watches the games it is given.
+	 * Games that are not watched can skip work whose only purpose is to be seen, such as playing
+	 * out a game nobody can win anymore.
+	 *
+	 * @return true if the renderer does not display the boards
+	 */
+	default boolean isHeadless() {
+		return false;
+	}
+
+	/**
+	 * Waits until every board passed so far has been shown.
+	 * Call this before printing anything else, so the output is not interleaved with the boards.
+	 * By default boards are shown right away, so nothing is done.
+	 */
+	default void flush() {
+	}
+
+	/**
+	 * Shows any boards still waiting and releases the renderer's resources.
+	 * By default there is nothing to release.
+	 */
+	@Override
+	default void close() {
+	}
 }
\ No newline at end of file
@@ -3,6 +3,7 @@
  *
  * @author aron isaacs
  * @see Renderer
+ * @see AsyncRenderer
  */
 public class RendererFactory {
 
@@ -15,8 +16,8 @@ public class RendererFactory {
 	/**
 	 * Builds and returns a Renderer instance based on the specified type.
 	 *
-	 * @param rendererType the type of renderer to create ("console" or "void")
-	 * @param size         the size of the board (used for console renderer)
+	 * @param rendererType the type of renderer to create ("console", "async" or "void")
+	 * @param size         the size of the board (used for console renderers)
 	 * @return the created Renderer instance or null if the type is unrecognized
 	 */
 	public Renderer buildRenderer(String rendererType, int size) {
@@ -24,6 +25,7 @@ public class RendererFactory {
 		// note the use of Java 14+ switch expression
 		return switch (rendererType.toLowerCase()) {
 			case "console" -> new ConsoleRenderer(size);
+			case "async" -> new AsyncRenderer(new ConsoleRenderer(size), size);
 			case "void" -> new VoidRenderer();
 			default -> null;
 		};
@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A compact, mutable board for searching game trees.
+ * Unlike Board, marks can be taken back, and the board keeps per-window mark counts up to date on
+ * every move, so detecting a win, a dead draw (no window left that either mark can still fill) or
+ * evaluating a position never has to rescan the whole board. It also keeps a Zobrist hash of the
+ * position for transposition tables.
+ * Cells are addressed by a single index, row * size + col, and hold the ordinal of their Mark.
+ *
+ * @author aron isaacs
+ * @see StreakWindows
+ * @see Board
+ */
+public class SearchBoard {
+	private static final int BLANK = Mark.BLANK.ordinal();
+	// Fixed seed, so every SearchBoard of a given size hashes positions the same way
+	private static final long ZOBRIST_SEED = 0x5EEDL;
+	// Zobrist keys already generated, by cell count, shared because they never change
+	private static final Map<Integer, long[][]> ZOBRIST_KEYS = new ConcurrentHashMap<>();
+
+	private final StreakWindows windows;
+	private final int winStreak;
+	private final byte[] cells;
+	// counts[markOrdinal][window] is the number of marks of that mark in the window
+	private final int[][] counts;
+	// zobrist[markOrdinal][cell] is the hash key of the mark on the cell
+	private final long[][] zobrist;
+	private long hash = 0;
+	private int markCount = 0;
+	// Windows that do not hold both marks, so one of the players can still fill them
+	private int liveWindows;
+
+	/**
+	 * Constructor to initialize an empty board.
+	 *
+	 * @param windows the windows of the board, which also define its size and win streak
+	 */
+	public SearchBoard(StreakWindows windows) {
+		this.windows = windows;
+		this.winStreak = windows.getWinStreak();
+		int cellCount = windows.getSize() * windows.getSize();
+		this.cells = new byte[cellCount];
+		Arrays.fill(cells, (byte) BLANK);
+		this.counts = new int[2][windows.getWindowCount()];
+		this.liveWindows = windows.getWindowCount();
+		this.zobrist = ZOBRIST_KEYS.computeIfAbsent(cellCount, SearchBoard::generateZobristKeys);
+	}
+
+	/**
+	 * Constructor to initialize a board holding the same marks as the given board.
+	 *
+	 * @param windows the windows of the board, which also define its size and win streak
+	 * @param board   the board to copy the marks from
+	 */
+	public SearchBoard(StreakWindows windows, Board board) {
+		this(windows);
+		int size = windows.getSize();
+		for (int cell = 0; cell < cells.length; cell++) {
+			Mark mark = board.getMark(cell / size, cell % size);
+			if (mark != Mark.BLANK) {
+				place(cell, mark.ordinal());
+			}
+		}
+	}
+
+	/*
+	 * Generates random hash keys for both marks on every cell.
+	 *
+	 * @param cellCount the number of cells on the board
+	 * @return the keys, indexed by mark ordinal and cell
+	 */
+	private static long[][] generateZobristKeys(int cellCount) {
+		long[][] keys = new long[2][cellCount];
+		Random rand = new Random(ZOBRIST_SEED);
+		for (long[] markKeys : keys) {
+			for (int cell = 0; cell < cellCount; cell++) {
+				markKeys[cell] = rand.nextLong();
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Returns the windows of this board.
+	 *
+	 * @return the window tables
+	 */
+	public StreakWindows getWindows() {
+		return windows;
+	}
+
+	/**
+	 * Returns the number of cells on the board.
+	 *
+	 * @return size * size
+	 */
+	public int getCellCount() {
+		return cells.length;
+	}
+
+	/**
+	 * Checks whether a cell is empty.
+	 *
+	 * @param cell the cell index
+	 * @return true if no mark is placed on the cell
+	 */
+	public boolean isEmpty(int cell) {
+		return cells[cell] == BLANK;
+	}
+
+	/**
+	 * Returns the number of marks on the board.
+	 *
+	 * @return the mark count
+	 */
+	public int getMarkCount() {
+		return markCount;
+	}
+
+	/**
+	 * Checks whether every cell holds a mark.
+	 *
+	 * @return true if the board is full
+	 */
+	public boolean isFull() {
+		return markCount == cells.length;
+	}
+
+	/**
+	 * Checks whether no window can be filled by either mark anymore, so the game can only end in a tie.
+	 *
+	 * @return true if every window holds both marks
+	 */
+	public boolean isDeadDraw() {
+		return liveWindows == 0;
+	}
+
+	/**
+	 * Returns the Zobrist hash of the marks on the board.
+	 *
+	 * @return the position hash
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Returns the number of marks of the given mark in a window.
+	 *
+	 * @param markOrdinal the ordinal of the mark (X or O)
+	 * @param window      the window index
+	 * @return the mark count in the window
+	 */
+	public int getCount(int markOrdinal, int window) {
+		return counts[markOrdinal][window];
+	}
+
+	/**
+	 * Places a mark on an empty cell.
+	 *
+	 * @param cell        the cell index
+	 * @param markOrdinal the ordinal of the mark to place (X or O)
+	 * @return true if the mark completes a window, i.e. wins the game
+	 */
+	public boolean place(int cell, int markOrdinal) {
+		cells[cell] = (byte) markOrdinal;
+		hash ^= zobrist[markOrdinal][cell];
+		markCount++;
+		int[] own = counts[markOrdinal];
+		int[] opponent = counts[1 - markOrdinal];
+		boolean won = false;
+		for (int w : windows.getWindowsOf(cell)) {
+			if (own[w]++ == 0 && opponent[w] > 0) {
+				liveWindows--;
+			}
+			if (own[w] == winStreak) {
+				won = true;
+			}
+		}
+		return won;
+	}
+
+	/**
+	 * Removes the mark from a cell, undoing place.
+	 *
+	 * @param cell the cell index
+	 */
+	public void undo(int cell) {
+		int markOrdinal = cells[cell];
+		cells[cell] = (byte) BLANK;
+		hash ^= zobrist[markOrdinal][cell];
+		markCount--;
+		int[] own = counts[markOrdinal];
+		int[] opponent = counts[1 - markOrdinal];
+		for (int w : windows.getWindowsOf(cell)) {
+			if (--own[w] == 0 && opponent[w] > 0) {
+				liveWindows++;
+			}
+		}
+	}
+
+	/**
+	 * Evaluates the position with a LinearEvaluator, from the point of view of the player to move.
+	 *
+	 * @param evaluator  the evaluation function
+	 * @param markToMove the ordinal of the mark of the player to move
+	 * @return the evaluation, positive if the position is good for the player to move
+	 */
+	public float evaluate(LinearEvaluator evaluator, int markToMove) {
+		// The evaluator scores positions for the player who just moved, the opponent of markToMove
+		int[] justMoved = counts[1 - markToMove];
+		int[] toMove = counts[markToMove];
+		float sum = 0;
+		for (int w = 0; w < justMoved.length; w++) {
+			sum += evaluator.windowWeight(justMoved[w], toMove[w]);
+		}
+		return -sum;
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * A player that chooses its moves with a parallel alpha-beta search (see ParallelSearch).
+ * The search uses every core for a single move and stops when its time budget runs out, or earlier
+ * if it has searched the game to the end. Leaf positions are scored with a LinearEvaluator.
+ * Implements the Player interface.
+ *
+ * @author aron isaacs
+ * @see Player
+ * @see ParallelSearch
+ */
+public class SearchPlayer implements Player {
+	/**
+	 * Time budget per move used by default, in milliseconds.
+	 */
+	public static final long DEFAULT_BUDGET_MILLIS = 100;
+
+	private final ParallelSearch search;
+
+	/**
+	 * Constructor to initialize a player using all available cores and the default time budget.
+	 *
+	 * @param evaluator the evaluation function for leaf positions
+	 */
+	public SearchPlayer(LinearEvaluator evaluator) {
+		this(evaluator, Runtime.getRuntime().availableProcessors(), DEFAULT_BUDGET_MILLIS);
+	}
+
+	/**
+	 * Constructor to initialize a player with the given number of threads and time budget.
+	 *
+	 * @param evaluator    the evaluation function for leaf positions
+	 * @param threads      the number of search threads per move
+	 * @param budgetMillis the time budget per move in milliseconds
+	 */
+	public SearchPlayer(LinearEvaluator evaluator, int threads, long budgetMillis) {
+		this.search = new ParallelSearch(evaluator, threads, budgetMillis);
+	}
+
+	/**
+	 * Plays a turn by searching the position and placing the mark on the best cell found.
+	 *
+	 * @param board the game board where the mark will be placed
+	 * @param mark  the mark (X or O) to be placed on the board
+	 */
+	@Override
+	public void playTurn(Board board, Mark mark) {
+		int cell = search.findBestMove(board, mark);
+		if (cell >= 0) {
+			board.putMark(mark, cell / board.getSize(), cell % board.getSize());
+		}
+	}
+
+	/**
+	 * Stops the search threads of this player.
+	 */
+	@Override
+	public void close() {
+		search.close();
+	}
+}
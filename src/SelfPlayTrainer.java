@@ -0,0 +1,312 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Trains a LinearEvaluator from self-play and saves its weights for LearnedPlayer.
+ * Each iteration plays many games with the regular Game and Player classes, spread over all
+ * available cores. Every position reached in those games is recorded as window features from the
+ * point of view of the player who just moved, labelled with that player's final result
+ * (1 win, 0.5 tie, 0 loss). A logistic regression is then fitted to the recorded positions.
+ * The first iteration is played by random players; later iterations are played by LearnedPlayers
+ * using the weights of the previous iteration, with some random moves to keep exploring.
+ *
+ * @author aron isaacs
+ * @see LinearEvaluator
+ * @see LearnedPlayer
+ */
+public class SelfPlayTrainer {
+	private static final int DEFAULT_ITERATIONS = 3;
+	private static final int EPOCHS = 4;
+	// Step size of normalized SGD, relative to the squared norm of the features
+	private static final float LEARNING_RATE = 0.1f;
+	private static final double EXPLORATION_RATE = 0.2;
+	private static final float WIN_LABEL = 1f;
+	private static final float TIE_LABEL = 0.5f;
+	private static final float LOSS_LABEL = 0f;
+
+	private final int size;
+	private final int winStreak;
+	private final int threads;
+
+	/**
+	 * Main method to train and save the weights.
+	 * Expects command-line arguments as follows:
+	 * java SelfPlayTrainer [board size] [win streak] [games per iteration] [iterations] [output file]
+	 * Example:
+	 * java SelfPlayTrainer 4 3 200000 3 learned-4x4-3.weights
+	 *
+	 * @param args Command-line arguments:
+	 *             args[0] - Size of the game board used for self-play.
+	 *             args[1] - Number of consecutive marks needed to win.
+	 *             args[2] - Number of games to play in each iteration.
+	 *             args[3] - Number of iterations (optional, default 3).
+	 *             args[4] - Output file (optional, default learned-[size]x[size]-[win streak].weights).
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+		int size = Integer.parseInt(args[0]);
+		int winStreak = Integer.parseInt(args[1]);
+		int games = Integer.parseInt(args[2]);
+		int iterations = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_ITERATIONS;
+		String output = args.length > 4 ? args[4] : LinearEvaluator.weightsFileName(size, winStreak);
+		if (iterations < 1) {
+			throw new IllegalArgumentException("At least one iteration is needed, got " + iterations);
+		}
+
+		SelfPlayTrainer trainer =
+				new SelfPlayTrainer(size, winStreak, Runtime.getRuntime().availableProcessors());
+		LinearEvaluator evaluator = null;
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			evaluator = trainer.trainIteration(evaluator, games);
+		}
+		evaluator.save(output);
+		System.out.printf("Saved weights to %s%n", output);
+	}
+
+	/**
+	 * Constructor for the SelfPlayTrainer class.
+	 *
+	 * @param size      the size of the board used for self-play
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @param threads   the number of threads playing games in parallel
+	 */
+	public SelfPlayTrainer(int size, int winStreak, int threads) {
+		this.size = size;
+		this.winStreak = winStreak;
+		this.threads = threads;
+	}
+
+	/**
+	 * Plays one iteration of self-play games and fits a new evaluator to them.
+	 *
+	 * @param previous the evaluator playing the games, or null to play random games
+	 * @param games    the number of games to play
+	 * @return the newly trained evaluator
+	 * @throws InterruptedException if interrupted while waiting for the games
+	 * @throws ExecutionException   if a game thread failed
+	 */
+	public LinearEvaluator trainIteration(LinearEvaluator previous, int games)
+			throws InterruptedException, ExecutionException {
+		long start = System.nanoTime();
+		List<Samples> batches = generate(previous, games);
+		long generated = System.nanoTime();
+
+		LinearEvaluator evaluator = previous == null ? new LinearEvaluator(size, winStreak) : previous.copy();
+		double loss = fit(evaluator, batches);
+		long fitted = System.nanoTime();
+		double baseline = constantGuessLoss(batches);
+
+		int positions = 0;
+		for (Samples samples : batches) {
+			positions += samples.count;
+		}
+		System.out.printf("%d games, %d positions: played in %d ms, fitted in %d ms, log loss %.4f "
+						+ "(constant guess %.4f)%n", games, positions, (generated - start) / 1_000_000,
+				(fitted - generated) / 1_000_000, loss, baseline);
+		if (loss >= baseline) {
+			System.out.println("Warning: the fit is no better than always predicting the mean result");
+		}
+		return evaluator;
+	}
+
+	/*
+	 * Plays the given number of games split evenly across the threads.
+	 *
+	 * @param evaluator the evaluator playing the games, or null for random players
+	 * @param games     the number of games to play
+	 * @return the positions recorded by each thread
+	 */
+	private List<Samples> generate(LinearEvaluator evaluator, int games)
+			throws InterruptedException, ExecutionException {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Samples>> futures = new ArrayList<>();
+			for (int thread = 0; thread < threads; thread++) {
+				int threadGames = games / threads + (thread < games % threads ? 1 : 0);
+				futures.add(executor.submit(() -> playGames(evaluator, threadGames)));
+			}
+			List<Samples> batches = new ArrayList<>();
+			for (Future<Samples> future : futures) {
+				batches.add(future.get());
+			}
+			return batches;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/*
+	 * Plays games on the calling thread and records every position.
+	 * Each thread builds its own players so that no mutable state is shared between threads.
+	 *
+	 * @param evaluator the evaluator playing the games, or null for random players
+	 * @param games     the number of games to play
+	 * @return the recorded positions
+	 */
+	private Samples playGames(LinearEvaluator evaluator, int games) {
+		LinearEvaluator features = new LinearEvaluator(size, winStreak);
+		StreakWindows windows = new StreakWindows(size, winStreak);
+		Samples samples = new Samples(features.getFeatureCount(), games * size);
+		Player[] players = new Player[2];
+		for (int i = 0; i < players.length; i++) {
+			Player player = evaluator == null
+					? new WhateverPlayer() : new LearnedPlayer(evaluator, EXPLORATION_RATE);
+			players[i] = new RecordingPlayer(player, samples, features, windows);
+		}
+		Renderer renderer = new VoidRenderer();
+		for (int game = 0; game < games; game++) {
+			int first = samples.count;
+			Mark winner = new Game(players[game % 2], players[(game + 1) % 2], size, winStreak,
+					renderer).run();
+			samples.label(first, winner);
+		}
+		return samples;
+	}
+
+	/*
+	 * Fits the evaluator to the recorded positions with stochastic gradient descent, visiting the
+	 * positions in a random order each epoch.
+	 *
+	 * @param evaluator the evaluator to train in place
+	 * @param batches   the recorded positions
+	 * @return the mean log loss of the last epoch
+	 */
+	private double fit(LinearEvaluator evaluator, List<Samples> batches) {
+		int total = 0;
+		for (Samples samples : batches) {
+			total += samples.count;
+		}
+		// Encode (batch, position) pairs in a single long so the order can be shuffled in place
+		long[] order = new long[total];
+		int index = 0;
+		for (int batch = 0; batch < batches.size(); batch++) {
+			for (int position = 0; position < batches.get(batch).count; position++) {
+				order[index++] = ((long) batch << 32) | position;
+			}
+		}
+
+		Random rand = new Random();
+		double loss = 0;
+		for (int epoch = 0; epoch < EPOCHS; epoch++) {
+			for (int i = total - 1; i > 0; i--) {
+				int j = rand.nextInt(i + 1);
+				long swap = order[i];
+				order[i] = order[j];
+				order[j] = swap;
+			}
+			loss = 0;
+			for (long entry : order) {
+				Samples samples = batches.get((int) (entry >>> 32));
+				int position = (int) entry;
+				loss += evaluator.update(samples.features, position * samples.featureCount,
+						samples.labels[position], LEARNING_RATE);
+			}
+			loss /= Math.max(total, 1);
+		}
+		return loss;
+	}
+
+	/*
+	 * Computes the mean log loss of always predicting the mean label, the loss a useful fit must beat.
+	 *
+	 * @param batches the recorded positions
+	 * @return the log loss of the best constant prediction
+	 */
+	private static double constantGuessLoss(List<Samples> batches) {
+		double sum = 0;
+		int total = 0;
+		for (Samples samples : batches) {
+			for (int i = 0; i < samples.count; i++) {
+				sum += samples.labels[i];
+			}
+			total += samples.count;
+		}
+		double mean = Math.min(Math.max(sum / Math.max(total, 1), 1e-7), 1 - 1e-7);
+		double loss = 0;
+		for (Samples samples : batches) {
+			for (int i = 0; i < samples.count; i++) {
+				float label = samples.labels[i];
+				loss -= label * Math.log(mean) + (1 - label) * Math.log(1 - mean);
+			}
+		}
+		return loss / Math.max(total, 1);
+	}
+
+	/*
+	 * Positions recorded by one thread, stored in flat primitive arrays.
+	 */
+	private static class Samples {
+		private final int featureCount;
+		private float[] features;
+		private float[] labels;
+		// Mark of the player who just moved in each position, needed to label it after the game
+		private Mark[] movers;
+		private int count;
+
+		private Samples(int featureCount, int capacity) {
+			this.featureCount = featureCount;
+			this.features = new float[capacity * featureCount];
+			this.labels = new float[capacity];
+			this.movers = new Mark[capacity];
+		}
+
+		/*
+		 * Reserves room for one more position and returns its index.
+		 */
+		private int add(Mark mover) {
+			if (count == labels.length) {
+				int capacity = Math.max(2 * count, 16);
+				features = Arrays.copyOf(features, capacity * featureCount);
+				labels = Arrays.copyOf(labels, capacity);
+				movers = Arrays.copyOf(movers, capacity);
+			}
+			movers[count] = mover;
+			return count++;
+		}
+
+		/*
+		 * Labels all positions recorded since first with the result of the game they came from.
+		 */
+		private void label(int first, Mark winner) {
+			for (int i = first; i < count; i++) {
+				if (winner == Mark.BLANK) {
+					labels[i] = TIE_LABEL;
+				} else {
+					labels[i] = movers[i] == winner ? WIN_LABEL : LOSS_LABEL;
+				}
+			}
+		}
+	}
+
+	/*
+	 * A player decorator that records the position after every move of the wrapped player.
+	 */
+	private static class RecordingPlayer implements Player {
+		private final Player player;
+		private final Samples samples;
+		private final LinearEvaluator features;
+		private final StreakWindows windows;
+
+		private RecordingPlayer(Player player, Samples samples, LinearEvaluator features,
+								StreakWindows windows) {
+			this.player = player;
+			this.samples = samples;
+			this.features = features;
+			this.windows = windows;
+		}
+
+		@Override
+		public void playTurn(Board board, Mark mark) {
+			player.playTurn(board, mark);
+			int position = samples.add(mark);
+			features.extractFeatures(board, mark, windows, samples.features,
+					position * samples.featureCount);
+		}
+	}
+}
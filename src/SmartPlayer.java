@@ -61,4 +61,14 @@ public class SmartPlayer implements Player {
 		}
 		return false;
 	}
+
+	/**
+	 * This player always picks the same square on the same board.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isDeterministic() {
+		return true;
+	}
 }
\ No newline at end of file
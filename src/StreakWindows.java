@@ -0,0 +1,161 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StreakWindows enumerates every window of winStreak consecutive cells on a square board,
+ * horizontally, vertically and along both diagonals.
+ * A window is the unit a player needs to fill completely in order to win, so counting the marks
+ * inside each window is enough to detect wins, threats and windows nobody can win anymore.
+ * Cells are addressed by a single index, row * size + col, and all tables are primitive arrays
+ * so that they can be scanned cheaply on every move.
+ *
+ * @author aron isaacs
+ * @see Board
+ */
+public class StreakWindows {
+	// Window tables already built, shared because they never change after construction
+	private static final Map<Long, StreakWindows> CACHE = new ConcurrentHashMap<>();
+	// Row and column steps for the four directions: horizontal, vertical, "\" and "/"
+	private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+	private final int size;
+	private final int winStreak;
+	private final int windowCount;
+	// Cells of each window, window w occupies cells[w * winStreak .. (w + 1) * winStreak - 1]
+	private final int[] cells;
+	// For every cell, the indices of the windows that contain it
+	private final int[][] windowsOfCell;
+
+	/**
+	 * Constructor to build the window tables for a board of the given size and win streak.
+	 *
+	 * @param size      the size of the board (number of rows and columns)
+	 * @param winStreak the number of consecutive marks needed to win
+	 */
+	public StreakWindows(int size, int winStreak) {
+		this.size = size;
+		this.winStreak = winStreak;
+
+		// First pass: count the windows so the tables can be allocated exactly
+		int count = 0;
+		for (int[] direction : DIRECTIONS) {
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
+					if (fits(row, col, direction)) {
+						count++;
+					}
+				}
+			}
+		}
+		this.windowCount = count;
+		this.cells = new int[count * winStreak];
+
+		// Second pass: fill the cells of every window and count windows per cell
+		int[] windowsPerCell = new int[size * size];
+		int window = 0;
+		for (int[] direction : DIRECTIONS) {
+			for (int row = 0; row < size; row++) {
+				for (int col = 0; col < size; col++) {
+					if (!fits(row, col, direction)) {
+						continue;
+					}
+					for (int k = 0; k < winStreak; k++) {
+						int cell = (row + k * direction[0]) * size + col + k * direction[1];
+						cells[window * winStreak + k] = cell;
+						windowsPerCell[cell]++;
+					}
+					window++;
+				}
+			}
+		}
+
+		// Invert the table so every cell knows its windows
+		this.windowsOfCell = new int[size * size][];
+		for (int cell = 0; cell < size * size; cell++) {
+			windowsOfCell[cell] = new int[windowsPerCell[cell]];
+			windowsPerCell[cell] = 0;
+		}
+		for (int w = 0; w < windowCount; w++) {
+			for (int k = 0; k < winStreak; k++) {
+				int cell = cells[w * winStreak + k];
+				windowsOfCell[cell][windowsPerCell[cell]++] = w;
+			}
+		}
+	}
+
+	/**
+	 * Returns the shared window tables for a board of the given size and win streak, building them on
+	 * first use.
+	 *
+	 * @param size      the size of the board (number of rows and columns)
+	 * @param winStreak the number of consecutive marks needed to win
+	 * @return the window tables
+	 */
+	public static StreakWindows of(int size, int winStreak) {
+		return CACHE.computeIfAbsent(((long) size << 32) | winStreak,
+				key -> new StreakWindows(size, winStreak));
+	}
+
+	/**
+	 * Returns the size of the board these windows were built for.
+	 *
+	 * @return the board size
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of consecutive marks needed to win.
+	 *
+	 * @return the win streak length
+	 */
+	public int getWinStreak() {
+		return winStreak;
+	}
+
+	/**
+	 * Returns the number of windows on the board.
+	 *
+	 * @return the window count, 0 if the win streak is longer than the board
+	 */
+	public int getWindowCount() {
+		return windowCount;
+	}
+
+	/**
+	 * Returns the cell index of the k-th cell in the given window.
+	 *
+	 * @param window the window index
+	 * @param k      the position inside the window (0-based)
+	 * @return the cell index, row * size + col
+	 */
+	public int getCell(int window, int k) {
+		return cells[window * winStreak + k];
+	}
+
+	/**
+	 * Returns the indices of all windows that contain the given cell.
+	 * The returned array is shared and must not be modified.
+	 *
+	 * @param cell the cell index, row * size + col
+	 * @return the windows containing the cell
+	 */
+	public int[] getWindowsOf(int cell) {
+		return windowsOfCell[cell];
+	}
+
+	/*
+	 * Checks whether a window starting at the given cell in the given direction stays on the board.
+	 *
+	 * @param row       the row of the first cell
+	 * @param col       the column of the first cell
+	 * @param direction the row and column step
+	 * @return true if all winStreak cells are on the board
+	 */
+	private boolean fits(int row, int col, int[] direction) {
+		int lastRow = row + (winStreak - 1) * direction[0];
+		int lastCol = col + (winStreak - 1) * direction[1];
+		return winStreak > 0 && lastRow >= 0 && lastRow < size && lastCol >= 0 && lastCol < size;
+	}
+}
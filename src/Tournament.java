@@ -1,3 +1,6 @@
+import java.util.HashMap;
+import java.util.Map;
+
 /*
 make sure to check that the switch cases in the factories is supported in the java version of the course!!
  */
@@ -25,14 +28,16 @@ public class Tournament {
 	private final Renderer renderer;
 	// Array of two players participating in the tournament
 	private final Player[] players;
+	// Results of games between deterministic players, by starting player, board size and win streak
+	private final Map<Long, Mark> deterministicResults = new HashMap<>();
 
 	/**
 	 * Main method to start the tournament.
 	 * Expects command-line arguments to configure the tournament as follows:
 	 * java Tournament [round count] [board size] [win streak]
-	 * [render target: console/void]
-	 * [first player: human/whatever/naive/smart]
-	 * [second player: human/whatever/naive/smart]
+	 * [render target: console/async/void]
+	 * [first player: human/whatever/naive/smart/learned/search[:threads[:millis]]]
+	 * [second player: human/whatever/naive/smart/learned/search[:threads[:millis]]]
 	 * Example:
 	 * java Tournament 100 4 3 console smart naive
 	 *
@@ -40,7 +45,7 @@ public class Tournament {
 	 *             args[0] - Number of rounds to play (positive integer).
 	 *             args[1] - Size of the game board (e.g., 3 for 3x3).
 	 *             args[2] - Number of consecutive marks needed to win.
-	 *             args[3] - Render target (e.g., "console" or "void").
+	 *             args[3] - Render target (e.g., "console", "async" or "void").
 	 *             args[4] - Type of the first player (e.g., "human" or "smart").
 	 *             args[5] - Type of the second player (e.g., "human" or "naive").
 	 */
@@ -53,13 +58,18 @@ public class Tournament {
 		//create factories and build objects
 		PlayerFactory playerFactory = new PlayerFactory();
 		RendererFactory rendererFactory = new RendererFactory();
-		Player player1 = playerFactory.buildPlayer(args[4]);
-		Player player2 = playerFactory.buildPlayer(args[5]);
+		Player player1 = playerFactory.buildPlayer(args[4], size, winStreak);
+		Player player2 = playerFactory.buildPlayer(args[5], size, winStreak);
 		Renderer renderer = rendererFactory.buildRenderer(args[3], size);
 		Tournament tournament = new Tournament(rounds, renderer, player1, player2);
 
 		//start tournament
 		tournament.playTournament(size, winStreak, args[4], args[5]);
+
+		// let the renderer show its remaining boards before exiting
+		renderer.close();
+		player1.close();
+		player2.close();
 	}
 
 	/**
@@ -88,38 +98,84 @@ public class Tournament {
 	 * @param playerName2 name of the second player
 	 */
 	public void playTournament(int size, int winStreak, String playerName1, String playerName2) {
+		TournamentResult result = playRounds(size, winStreak);
+
+		// make sure the renderer has shown every board before the results
+		renderer.flush();
+		displayResults(playerName1, playerName2, result.getPlayer1Wins(), result.getPlayer2Wins(),
+				result.getTies());
+	}
+
+	/**
+	 * Plays all rounds of the tournament without displaying anything but the boards.
+	 * Alternates the starting player for each game and keeps track of wins and ties.
+	 * If both players are deterministic and the renderer is headless, a game with a given starting
+	 * player always ends the same way, so each game is played only once and its result counted for
+	 * every round with the same starting player.
+	 *
+	 * @param size      dimensions of the game board
+	 * @param winStreak number of consecutive marks needed to win
+	 * @return the number of wins of each player and the number of ties
+	 */
+	public TournamentResult playRounds(int size, int winStreak) {
 		// Initialize win counters
 		int player1Wins = 0;
 		int player2Wins = 0;
 		int ties = 0;
 
+		// With deterministic players only the first round of each starting player needs to be played
+		boolean memoize = renderer.isHeadless()
+				&& players[0].isDeterministic() && players[1].isDeterministic();
+		int playedRounds = memoize ? Math.min(rounds, 2) : rounds;
+
 		// Play the specified number of rounds, alternating starting players
-		for (int round = 0; round < rounds; round++) {
+		for (int round = 0; round < playedRounds; round++) {
 			Player currentPlayer1 = players[round % 2];
 			Player currentPlayer2 = players[(round + 1) % 2];
 
-			Game game = new Game(currentPlayer1, currentPlayer2, size, winStreak, renderer);
-			Mark winner = game.run();
+			Mark winner;
+			// Number of rounds this game stands for: every round with the same starting player
+			int repeats = 1;
+			if (memoize) {
+				winner = playDeterministicGame(round % 2, size, winStreak);
+				repeats = (rounds - round + 1) / 2;
+			} else {
+				Game game = new Game(currentPlayer1, currentPlayer2, size, winStreak, renderer);
+				winner = game.run();
+			}
 
 			// Update win counters based on the game result:
 			if (winner == Mark.X) {
 				if (currentPlayer1 == players[0]) {
-					player1Wins++;
+					player1Wins += repeats;
 				} else {
-					player2Wins++;
+					player2Wins += repeats;
 				}
 			} else if (winner == Mark.O) {
 				if (currentPlayer2 == players[0]) {
-					player1Wins++;
+					player1Wins += repeats;
 				} else {
-					player2Wins++;
+					player2Wins += repeats;
 				}
 			} else {
-				ties++;
+				ties += repeats;
 			}
 		}
+		return new TournamentResult(player1Wins, player2Wins, ties);
+	}
 
-		displayResults(playerName1, playerName2, player1Wins, player2Wins, ties);
+	/*
+	 * Returns the result of a game between the deterministic players, playing it only the first time.
+	 *
+	 * @param firstPlayer index of the player using the X mark
+	 * @param size        dimensions of the game board
+	 * @param winStreak   number of consecutive marks needed to win
+	 * @return the mark of the winning player, or BLANK in case of a tie
+	 */
+	private Mark playDeterministicGame(int firstPlayer, int size, int winStreak) {
+		long key = ((long) firstPlayer << 62) | ((long) size << 31) | winStreak;
+		return deterministicResults.computeIfAbsent(key, k -> new Game(players[firstPlayer],
+				players[1 - firstPlayer], size, winStreak, renderer).run());
 	}
 
 	/*
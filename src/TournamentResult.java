@@ -0,0 +1,51 @@
+/**
+ * The results of a tournament: how many rounds each player won and how many ended in a tie.
+ *
+ * @author aron isaacs
+ * @see Tournament
+ */
+public class TournamentResult {
+	private final int player1Wins;
+	private final int player2Wins;
+	private final int ties;
+
+	/**
+	 * Constructor for the TournamentResult class.
+	 *
+	 * @param player1Wins number of wins for the first player
+	 * @param player2Wins number of wins for the second player
+	 * @param ties        number of tied games
+	 */
+	public TournamentResult(int player1Wins, int player2Wins, int ties) {
+		this.player1Wins = player1Wins;
+		this.player2Wins = player2Wins;
+		this.ties = ties;
+	}
+
+	/**
+	 * Returns the number of rounds won by the first player.
+	 *
+	 * @return the first player's wins
+	 */
+	public int getPlayer1Wins() {
+		return player1Wins;
+	}
+
+	/**
+	 * Returns the number of rounds won by the second player.
+	 *
+	 * @return the second player's wins
+	 */
+	public int getPlayer2Wins() {
+		return player2Wins;
+	}
+
+	/**
+	 * Returns the number of tied rounds.
+	 *
+	 * @return the number of ties
+	 */
+	public int getTies() {
+		return ties;
+	}
+}
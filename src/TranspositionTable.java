@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+/**
+ * A lock-free transposition table shared by all search threads.
+ * Each entry is two longs: the entry data and the position hash XORed with the data. Threads read
+ * and write entries without any locking; an entry torn by two concurrent writes fails the XOR check
+ * on the next probe and is simply treated as a miss, so no lock is ever needed.
+ * The data packs the score, the search depth, the kind of bound and the best move into one long.
+ *
+ * @author aron isaacs
+ * @see ParallelSearch
+ */
+public class TranspositionTable {
+	/**
+	 * The stored score is the exact value of the position.
+	 */
+	public static final int EXACT = 1;
+	/**
+	 * The stored score is a lower bound (the search failed high).
+	 */
+	public static final int LOWER_BOUND = 2;
+	/**
+	 * The stored score is an upper bound (the search failed low).
+	 */
+	public static final int UPPER_BOUND = 3;
+
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+
+	/**
+	 * Constructor to initialize an empty table.
+	 *
+	 * @param entries the minimal number of entries, rounded up to a power of two
+	 */
+	public TranspositionTable(int entries) {
+		int capacity = Integer.highestOneBit(Math.max(entries - 1, 1)) << 1;
+		this.keys = new long[capacity];
+		this.data = new long[capacity];
+		this.mask = capacity - 1;
+	}
+
+	/**
+	 * Removes every entry. Must not be called while a search is using the table.
+	 */
+	public void clear() {
+		Arrays.fill(keys, 0);
+		Arrays.fill(data, 0);
+	}
+
+	/**
+	 * Looks up a position.
+	 *
+	 * @param hash the position hash
+	 * @return the packed entry data, or 0 if the position is not in the table
+	 */
+	public long probe(long hash) {
+		int index = (int) hash & mask;
+		long entry = data[index];
+		if (entry != 0 && (keys[index] ^ entry) == hash) {
+			return entry;
+		}
+		return 0;
+	}
+
+	/**
+	 * Stores a search result, replacing whatever entry the position maps to.
+	 *
+	 * @param hash  the position hash
+	 * @param score the score of the position
+	 * @param depth the remaining search depth the score was found with (0 to 255)
+	 * @param bound EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param move  the best move found, or -1 (a cell index below 255)
+	 */
+	public void store(long hash, int score, int depth, int bound, int move) {
+		long entry = (score & 0xFFFFFFFFL) | ((long) depth << 32) | ((long) bound << 40)
+				| ((long) (move + 1) << 48);
+		int index = (int) hash & mask;
+		data[index] = entry;
+		keys[index] = hash ^ entry;
+	}
+
+	/**
+	 * Extracts the score of a packed entry.
+	 *
+	 * @param entry the packed entry data
+	 * @return the score
+	 */
+	public static int score(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * Extracts the search depth of a packed entry.
+	 *
+	 * @param entry the packed entry data
+	 * @return the remaining depth the score was found with
+	 */
+	public static int depth(long entry) {
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * Extracts the kind of bound of a packed entry.
+	 *
+	 * @param entry the packed entry data
+	 * @return EXACT, LOWER_BOUND or UPPER_BOUND
+	 */
+	public static int bound(long entry) {
+		return (int) (entry >>> 40) & 0xFF;
+	}
+
+	/**
+	 * Extracts the best move of a packed entry.
+	 *
+	 * @param entry the packed entry data
+	 * @return the cell index of the best move, or -1
+	 */
+	public static int move(long entry) {
+		return (int) (entry >>> 48) - 1;
+	}
+}
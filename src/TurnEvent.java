@@ -0,0 +1,32 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted once per Player.playTurn call made by a Game.
+ * The event duration is the time the player took to choose and place its mark.
+ * Enabled by default; disable it with the JFR setting tictactoe.Turn#enabled=false.
+ *
+ * @author aron isaacs
+ * @see Player#playTurn(Board, Mark)
+ */
+@Name("tictactoe.Turn")
+@Label("Turn")
+@Category("Tic Tac Toe")
+@Description("A single player decision")
+public class TurnEvent extends jdk.jfr.Event {
+	@Label("Player Type")
+	String playerType;
+
+	@Label("Mark")
+	String mark;
+
+	@Label("Row")
+	@Description("Row of the placed mark, -1 if none was placed")
+	int row;
+
+	@Label("Column")
+	@Description("Column of the placed mark, -1 if none was placed")
+	int col;
+}
@@ -15,4 +15,14 @@ public class VoidRenderer implements Renderer {
 	@Override
 	public void renderBoard(Board board) {
 	}
+
+	/**
+	 * This renderer never displays anything.
+	 *
+	 * @return true
+	 */
+	@Override
+	public boolean isHeadless() {
+		return true;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder event emitted for every win check a Game makes after a turn.
+ * Win checks are very frequent, so the event is disabled by default;
+ * enable it with the JFR setting tictactoe.WinCheck#enabled=true.
+ *
+ * @author aron isaacs
+ * @see Game
+ */
+@Name("tictactoe.WinCheck")
+@Label("Win Check")
+@Category("Tic Tac Toe")
+@Description("A check whether the player who just moved has a winning streak")
+@Enabled(false)
+public class WinCheckEvent extends jdk.jfr.Event {
+	@Label("Mark")
+	String mark;
+
+	@Label("Won")
+	boolean won;
+}